@@ -0,0 +1,393 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.github.edarke.literalcomments.SourceScanner.CallSite;
+import com.github.edarke.literalcomments.SourceScanner.Declaration;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reports uncommented literal arguments without starting an IDE, for pre-commit hooks and CI.
+ *
+ * <p>Files are memory-mapped and scanned on a fork-join pool in two passes. The first pass collects
+ * every method declaration and every candidate call site. The second matches call sites against
+ * declarations by name, arity and class, and prints findings as soon as each file is matched.
+ * Calls into classes that aren't among the scanned sources are not reported.
+ *
+ * <pre>
+ * java -jar literal-arguments-cli.jar [--threads N] [--quiet] path...
+ * </pre>
+ *
+ * Exits with status 1 if anything was reported, and 2 if the arguments are wrong. Files and
+ * directories that can't be read are reported on stderr and skipped.
+ */
+public final class LiteralArgumentsCli {
+
+  private static final String COMMENT_FORMAT = "/* %s= */";
+
+  private final ForkJoinPool pool;
+  private final PrintStream out;
+  /**
+   * Declarations by method name, then by class name.
+   */
+  private final Map<String, Map<String, List<Declaration>>> declarations =
+      new ConcurrentHashMap<>();
+  /**
+   * Merged targets by call shape. Common names have thousands of declarations, so each shape is
+   * only merged once.
+   */
+  private final Map<String, Target> targets = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<ScannedFile> scanned = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger fileCount = new AtomicInteger();
+  private final AtomicInteger findingCount = new AtomicInteger();
+
+  private static final class ScannedFile {
+
+    final Path path;
+    final List<CallSite> callSites;
+    final int[] lineStarts;
+    /**
+     * The file's UTF-8 bytes if any of them aren't ASCII, so columns can be counted in
+     * characters, or null. ASCII files only keep their line starts.
+     */
+    private final ByteBuffer source;
+
+    ScannedFile(Path path, List<CallSite> callSites, ByteBuffer source) {
+      this.path = path;
+      this.callSites = callSites;
+      int[] starts = new int[64];
+      int count = 1;
+      boolean ascii = true;
+      for (int i = 0; i < source.limit(); ++i) {
+        byte b = source.get(i);
+        if (b == '\n') {
+          if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+          }
+          starts[count++] = i + 1;
+        } else if (b < 0) {
+          ascii = false;
+        }
+      }
+      this.lineStarts = Arrays.copyOf(starts, count);
+      this.source = ascii ? null : source;
+    }
+
+    /**
+     * Returns the 1-based column of {@code offset} on {@code line}, counting UTF-16 characters
+     * like editors do rather than bytes.
+     */
+    int column(int line, int offset) {
+      int start = lineStarts[line];
+      if (source == null) {
+        return offset - start + 1;
+      }
+      if (start == 0 && offset >= 3 && source.get(0) == (byte) 0xEF
+          && source.get(1) == (byte) 0xBB && source.get(2) == (byte) 0xBF) {
+        // Editors don't show the byte order mark
+        start = 3;
+      }
+      int column = 1;
+      for (int i = start; i < offset; ++i) {
+        int b = source.get(i) & 0xFF;
+        // Continuation bytes belong to the character before, and 4-byte sequences are surrogate
+        // pairs in UTF-16
+        if (b < 0x80 || b >= 0xC0) {
+          column += b >= 0xF0 ? 2 : 1;
+        }
+      }
+      return column;
+    }
+  }
+
+  /**
+   * What every declaration a call could refer to agrees on.
+   */
+  private static final class Target {
+
+    static final Target NONE = new Target(/* blacklisted= */ true, new String[0]);
+
+    final boolean blacklisted;
+    /**
+     * The parameter name for each argument, or null for varargs and where declarations disagree.
+     */
+    final String[] parameterNames;
+
+    Target(boolean blacklisted, String[] parameterNames) {
+      this.blacklisted = blacklisted;
+      this.parameterNames = parameterNames;
+    }
+  }
+
+  LiteralArgumentsCli(ForkJoinPool pool, PrintStream out) {
+    this.pool = pool;
+    this.out = out;
+  }
+
+  public static void main(String[] args) {
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean quiet = false;
+    List<Path> roots = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      if (args[i].equals("--threads")) {
+        threads = i + 1 < args.length ? parseThreads(args[++i]) : 0;
+        if (threads <= 0) {
+          exitWithUsage();
+        }
+      } else if (args[i].equals("--quiet")) {
+        quiet = true;
+      } else {
+        roots.add(Paths.get(args[i]));
+      }
+    }
+    if (roots.isEmpty()) {
+      exitWithUsage();
+    }
+
+    long start = System.nanoTime();
+    PrintStream out = new PrintStream(new BufferedOutputStream(
+        new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+    LiteralArgumentsCli cli = new LiteralArgumentsCli(new ForkJoinPool(threads), out);
+    int findings = cli.run(roots);
+    out.flush();
+
+    if (!quiet) {
+      double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+      System.err.printf("%d files, %d findings in %.2fs (%.0f files/s)%n", cli.fileCount.get(),
+          findings, seconds, cli.fileCount.get() / seconds);
+    }
+    System.exit(findings == 0 ? 0 : 1);
+  }
+
+  /**
+   * Returns the thread count, or 0 if {@code value} isn't a number.
+   */
+  private static int parseThreads(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static void exitWithUsage() {
+    System.err.println("Usage: literal-arguments-cli [--threads N] [--quiet] path...");
+    System.exit(2);
+  }
+
+  /**
+   * Reports a file or directory that can't be read. File system exceptions often have nothing
+   * but the path as their message, so those are reported by type.
+   */
+  private static void skip(Path path, IOException e) {
+    String reason =
+        path.toString().equals(e.getMessage()) ? e.getClass().getSimpleName() : e.getMessage();
+    System.err.println(path + ": " + reason + ", skipped");
+  }
+
+  int run(List<Path> roots) {
+    List<RecursiveAction> scans = new ArrayList<>();
+    for (Path root : roots) {
+      scans.add(new ScanAction(root));
+    }
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(scans);
+      }
+    });
+
+    pool.submit(() -> scanned.parallelStream().forEach(this::report)).join();
+    return findingCount.get();
+  }
+
+  /**
+   * Scans a file, or forks a scan for every entry of a directory.
+   */
+  private final class ScanAction extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Path path;
+
+    ScanAction(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    protected void compute() {
+      if (Files.isDirectory(path)) {
+        List<ScanAction> children = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+          for (Path entry : entries) {
+            if (Files.isDirectory(entry) || entry.toString().endsWith(".java")) {
+              children.add(new ScanAction(entry));
+            }
+          }
+        } catch (IOException e) {
+          skip(path, e);
+          return;
+        } catch (DirectoryIteratorException e) {
+          skip(path, e.getCause());
+          return;
+        }
+        invokeAll(children);
+      } else {
+        scan(path);
+      }
+    }
+  }
+
+  private void scan(Path path) {
+    ByteBuffer source;
+    try {
+      source = map(path);
+    } catch (UncheckedIOException e) {
+      skip(path, e.getCause());
+      return;
+    }
+    SourceScanner scanner = SourceScanner.scan(source);
+    fileCount.incrementAndGet();
+    for (Declaration declaration : scanner.declarations) {
+      declarations.computeIfAbsent(declaration.name, name -> new ConcurrentHashMap<>())
+          .computeIfAbsent(String.valueOf(declaration.className),
+              className -> Collections.synchronizedList(new ArrayList<>()))
+          .add(declaration);
+    }
+    if (!scanner.callSites.isEmpty()) {
+      scanned.add(new ScannedFile(path, scanner.callSites, source));
+    }
+  }
+
+  private static ByteBuffer map(Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void report(ScannedFile file) {
+    StringBuilder findings = new StringBuilder();
+    for (CallSite call : file.callSites) {
+      Target target = resolve(call);
+      if (target.blacklisted) {
+        continue;
+      }
+      for (int c = 0; c < call.candidates.length; ++c) {
+        String parameterName = target.parameterNames[call.candidates[c]];
+        if (parameterName != null) {
+          appendFinding(findings, file, call, call.offsets[c], parameterName);
+          findingCount.incrementAndGet();
+        }
+      }
+    }
+    if (findings.length() > 0) {
+      synchronized (out) {
+        out.print(findings);
+        out.flush();
+      }
+    }
+  }
+
+  private Target resolve(CallSite call) {
+    String key = call.name + '/' + call.arity + '/' + call.constructor + '/' + call.qualified + '/'
+        + call.classHint;
+    return targets.computeIfAbsent(key, k -> resolveUncached(call));
+  }
+
+  /**
+   * Finds the declarations a call could refer to. Calls qualified with a class only match that
+   * class. Unqualified calls prefer the enclosing class and otherwise match any class.
+   */
+  private Target resolveUncached(CallSite call) {
+    Map<String, List<Declaration>> byClass = declarations.get(call.name);
+    if (byClass == null) {
+      return Target.NONE;
+    }
+    if (call.classHint != null) {
+      Target target = merge(byClass.get(call.classHint), call);
+      if (target != Target.NONE || call.qualified) {
+        return target;
+      }
+    }
+    List<Declaration> all = new ArrayList<>();
+    byClass.values().forEach(all::addAll);
+    return merge(all, call);
+  }
+
+  private static Target merge(List<Declaration> candidates, CallSite call) {
+    if (candidates == null) {
+      return Target.NONE;
+    }
+    boolean matched = false;
+    boolean blacklisted = false;
+    String[] parameterNames = new String[call.arity];
+    for (Declaration declaration : candidates) {
+      if (!declaration.acceptsArity(call.arity)
+          || call.constructor != declaration.name.equals(declaration.className)) {
+        continue;
+      }
+      blacklisted |= declaration.blacklisted;
+      for (int a = 0; a < call.arity; ++a) {
+        String name = a < declaration.parameterNames.length && a != declaration.varargsIndex
+            ? declaration.parameterNames[a] : null;
+        if (!matched) {
+          parameterNames[a] = name;
+        } else if (parameterNames[a] != null && !parameterNames[a].equals(name)) {
+          parameterNames[a] = null;
+        }
+      }
+      matched = true;
+    }
+    return matched ? new Target(blacklisted, parameterNames) : Target.NONE;
+  }
+
+  private static void appendFinding(StringBuilder findings, ScannedFile file, CallSite call,
+      int offset, String parameterName) {
+    int line = Arrays.binarySearch(file.lineStarts, offset);
+    if (line < 0) {
+      line = -line - 2;
+    }
+    findings.append(file.path).append(':').append(line + 1).append(':')
+        .append(file.column(line, offset)).append(": ")
+        .append((call.constructor ? Type.CONSTRUCTOR : Type.METHOD).description)
+        .append(" Expected ").append(String.format(COMMENT_FORMAT, parameterName))
+        .append('\n');
+  }
+}
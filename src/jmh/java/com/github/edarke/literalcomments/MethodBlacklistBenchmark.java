@@ -0,0 +1,73 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The blacklist check behind {@code isBlackListed}, over a mix of signatures that hit each kind of
+ * rule and signatures that miss everything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodBlacklistBenchmark {
+
+  /**
+   * Class name, method name, then parameter names.
+   */
+  private static final String[][] SIGNATURES = {
+      {"CustomerDao", "fetchCustomer", "customerId", "validate"},
+      {"Request", "Request", "url", "timeoutMillis", "retries", "followRedirects"},
+      {"OrderService", "place", "order", "priority", "dryRun"},
+      {"Builder", "withLimits", "lower", "upper"},
+      {"Assert", "assertEquals", "expected", "actual"},
+      {"String", "substring", "beginIndex", "endIndex"},
+      {"Math", "pow", "a", "b"},
+      {"ImmutableMap", "of", "k1", "v1", "k2", "v2"},
+      {"Properties", "setProperty", "key", "value"},
+      {"Integer", "compare", "x", "y"},
+  };
+
+  private final String[][] parameterNames = new String[SIGNATURES.length][];
+  private int next;
+
+  @Setup
+  public void split() {
+    for (int i = 0; i < SIGNATURES.length; ++i) {
+      parameterNames[i] = Arrays.copyOfRange(SIGNATURES[i], 2, SIGNATURES[i].length);
+    }
+  }
+
+  @Benchmark
+  public boolean matches() {
+    int i = next++ % SIGNATURES.length;
+    return MethodBlacklist.getDefault()
+        .matches(SIGNATURES[i][0], SIGNATURES[i][1], parameterNames[i]);
+  }
+}
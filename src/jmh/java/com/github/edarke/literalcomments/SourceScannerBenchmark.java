@@ -0,0 +1,66 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full pass over one synthetic file. {@code lex} covers comment tracking, which is what
+ * {@code isCommented} reads, and {@code scan} adds literal classification and call site
+ * extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceScannerBenchmark {
+
+  @Param
+  public SyntheticSources shape;
+
+  private ByteBuffer source;
+
+  @Setup
+  public void generate() {
+    byte[] bytes = shape.generate().getBytes(StandardCharsets.UTF_8);
+    // Direct, like the memory-mapped buffers the command line scanner reads
+    source = ByteBuffer.allocateDirect(bytes.length);
+    source.put(bytes).flip();
+  }
+
+  @Benchmark
+  public SourceTokens lex() {
+    return SourceTokens.lex(source);
+  }
+
+  @Benchmark
+  public SourceScanner scan() {
+    return SourceScanner.scan(source);
+  }
+}
@@ -0,0 +1,110 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+/**
+ * Generated Java files shaped like the code that makes the inspection slow.
+ */
+public enum SyntheticSources {
+
+  /**
+   * 10k call sites mixing literals, variables, strings and already commented arguments.
+   */
+  CALL_SITES {
+    @Override
+    void appendCalls(StringBuilder source) {
+      for (int i = 0; i < 10_000; ++i) {
+        switch (i % 5) {
+          case 0:
+            source.append("    fetch(customerId, ").append(i).append(", true);\n");
+            break;
+          case 1:
+            source.append("    fetch(customerId, count, validate);\n");
+            break;
+          case 2:
+            source.append("    fetch(customerId, /* count= */ ").append(i)
+                .append(", /* validate= */ false);\n");
+            break;
+          case 3:
+            source.append("    log(\"message ").append(i).append("\", 'c');\n");
+            break;
+          default:
+            source.append("    new Range(").append(i).append(", null);\n");
+            break;
+        }
+      }
+    }
+  },
+
+  /**
+   * Constructor calls with 24 arguments each.
+   */
+  LONG_ARGUMENT_LISTS {
+    @Override
+    void appendCalls(StringBuilder source) {
+      for (int i = 0; i < 1_000; ++i) {
+        source.append("    new Wide(");
+        for (int a = 0; a < 24; ++a) {
+          source.append(a == 0 ? "" : ", ").append(a % 3 == 0 ? "value" + a : a % 3 == 1
+              ? "(short) " + a : "/* p= */ " + a);
+        }
+        source.append(");\n");
+      }
+    }
+  },
+
+  /**
+   * Calls whose first argument is a 20-link builder chain.
+   */
+  CHAINED_BUILDERS {
+    @Override
+    void appendCalls(StringBuilder source) {
+      for (int i = 0; i < 2_000; ++i) {
+        source.append("    consume(builder");
+        for (int link = 0; link < 20; ++link) {
+          source.append(".set").append(link).append("(value").append(link).append(')');
+        }
+        source.append(".build(), ").append(i).append(");\n");
+      }
+    }
+  },
+
+  /**
+   * Calls passing empty java.util and Guava optionals in every spelling.
+   */
+  EMPTY_OPTIONALS {
+    @Override
+    void appendCalls(StringBuilder source) {
+      for (int i = 0; i < 5_000; ++i) {
+        source.append("    take(Optional.empty(), java.util.Optional.<String>empty(), "
+            + "com.google.common.base.Optional.absent(), Optional.of(").append(i).append("));\n");
+      }
+    }
+  };
+
+  abstract void appendCalls(StringBuilder source);
+
+  String generate() {
+    StringBuilder source = new StringBuilder()
+        .append("package synthetic;\n\n")
+        .append("class Synthetic {\n\n")
+        .append("  void fetch(Object customerId, int count, boolean validate) {}\n")
+        .append("  void log(String message, char level) {}\n")
+        .append("  void consume(Object built, int index) {}\n")
+        .append("  void take(Optional<String> a, Optional<String> b, Object c, Object d) {}\n\n")
+        .append("  void run() {\n");
+    appendCalls(source);
+    return source.append("  }\n}\n").toString();
+  }
+}
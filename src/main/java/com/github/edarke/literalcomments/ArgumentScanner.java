@@ -0,0 +1,170 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiJavaToken;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.Arrays;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The arguments of one call, found in a single walk over the argument list's children. For each
+ * argument it records the expression, the last comment preceding it and the parameter that comment
+ * names, if any, the first comment following it and, once asked for, its {@link LiteralKind}.
+ *
+ * <p>Records are kept in parallel arrays that are reused by the next {@link #scan}, so a visitor
+ * holding one scanner doesn't allocate per argument. A scanner isn't thread-safe.
+ */
+final class ArgumentScanner {
+
+  private int size;
+  private PsiExpression[] expressions = new PsiExpression[8];
+  private PsiComment[] leadingComments = new PsiComment[8];
+  private String[] commentedNames = new String[8];
+  private PsiComment[] trailingComments = new PsiComment[8];
+  /**
+   * Computed on demand, since classifying a call argument may resolve its qualifier.
+   */
+  private LiteralKind[] kinds = new LiteralKind[8];
+
+  /**
+   * Replaces the records with those of {@code list}'s arguments.
+   */
+  ArgumentScanner scan(@Nullable PsiExpressionList list) {
+    Arrays.fill(expressions, 0, size, null);
+    Arrays.fill(leadingComments, 0, size, null);
+    Arrays.fill(commentedNames, 0, size, null);
+    Arrays.fill(trailingComments, 0, size, null);
+    Arrays.fill(kinds, 0, size, null);
+    size = 0;
+    if (list == null) {
+      return this;
+    }
+
+    PsiComment leadingComment = null;
+    boolean afterArgument = false;
+    for (PsiElement child = list.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof PsiExpression) {
+        add((PsiExpression) child, leadingComment);
+        afterArgument = true;
+      } else if (child instanceof PsiComment) {
+        if (!afterArgument) {
+          leadingComment = (PsiComment) child;
+        } else if (trailingComments[size - 1] == null) {
+          trailingComments[size - 1] = (PsiComment) child;
+        }
+      } else if (child instanceof PsiJavaToken) {
+        // A parenthesis or comma
+        leadingComment = null;
+        afterArgument = false;
+      }
+    }
+    return this;
+  }
+
+  private void add(PsiExpression expression, @Nullable PsiComment leadingComment) {
+    if (size == expressions.length) {
+      int capacity = size * 2;
+      expressions = Arrays.copyOf(expressions, capacity);
+      leadingComments = Arrays.copyOf(leadingComments, capacity);
+      commentedNames = Arrays.copyOf(commentedNames, capacity);
+      trailingComments = Arrays.copyOf(trailingComments, capacity);
+      kinds = Arrays.copyOf(kinds, capacity);
+    }
+    expressions[size] = expression;
+    if (leadingComment != null) {
+      leadingComments[size] = leadingComment;
+      commentedNames[size] = SourceScanner.parameterName(leadingComment.getText());
+    }
+    ++size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  PsiExpression expression(int argument) {
+    return expressions[argument];
+  }
+
+  /**
+   * Returns true if a comment appears between the argument and the preceding parenthesis or comma.
+   */
+  boolean isCommented(int argument) {
+    return leadingComments[argument] != null;
+  }
+
+  /**
+   * Returns the last comment between the argument and the preceding parenthesis or comma.
+   */
+  @Nullable
+  PsiComment leadingComment(int argument) {
+    return leadingComments[argument];
+  }
+
+  /**
+   * Returns the parameter named by the argument's leading comment, if it has the form
+   * {@code name=}.
+   */
+  @Nullable
+  String commentedName(int argument) {
+    return commentedNames[argument];
+  }
+
+  /**
+   * Returns the first comment between the argument and the following comma or parenthesis.
+   */
+  @Nullable
+  PsiComment trailingComment(int argument) {
+    return trailingComments[argument];
+  }
+
+  LiteralKind kind(int argument) {
+    if (kinds[argument] == null) {
+      kinds[argument] = LiteralKind.of(expressions[argument]);
+    }
+    return kinds[argument];
+  }
+
+  /**
+   * Returns the index of the argument containing {@code element}, or -1.
+   */
+  int indexOf(PsiElement element) {
+    for (int i = 0; i < size; ++i) {
+      if (PsiTreeUtil.isAncestor(expressions[i], element, /* strict= */ false)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the first comment between {@code argument} and the following comma or parenthesis, for
+   * callers that only hold the one argument.
+   */
+  @Nullable
+  static PsiComment trailingComment(PsiExpression argument) {
+    for (PsiElement sibling = argument.getNextSibling();
+        sibling != null && !(sibling instanceof PsiJavaToken); sibling = sibling.getNextSibling()) {
+      if (sibling instanceof PsiComment) {
+        return (PsiComment) sibling;
+      }
+    }
+    return null;
+  }
+}
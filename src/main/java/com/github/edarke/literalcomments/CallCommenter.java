@@ -0,0 +1,210 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Comments the arguments of one call at a time, for {@link OptionalRefactor} and
+ * {@link CommentSelectedArgumentsAction}. However many of a call's arguments are chosen, its
+ * argument list is scanned once and the call is resolved once, and only if some argument was
+ * chosen. Callers run it inside a single write action.
+ *
+ * <p>Arguments are chosen by ranges. An empty range is a caret, which chooses the uncommented
+ * argument it's on, whatever it is. Any other range chooses the uncommented arguments it overlaps
+ * that the inspection would report.
+ */
+final class CallCommenter implements LiteralFix {
+
+  private final Project project;
+  private final InspectionSettings settings;
+  private final ArgumentScanner scanner = new ArgumentScanner();
+  private int unresolvedCalls;
+
+  CallCommenter(Project project, InspectionSettings settings) {
+    this.project = project;
+    this.settings = settings;
+  }
+
+  /**
+   * Returns the number of chosen calls that didn't resolve, so nothing was commented in them.
+   */
+  int getUnresolvedCalls() {
+    return unresolvedCalls;
+  }
+
+  /**
+   * Comments the arguments of {@code call} chosen by {@code ranges} and returns how many comments
+   * were added.
+   */
+  int comment(PsiCallExpression call, List<TextRange> ranges) {
+    scanner.scan(call.getArgumentList());
+    boolean[] atCaret = new boolean[scanner.size()];
+    boolean[] inRange = new boolean[scanner.size()];
+    boolean any = false;
+    for (int i = 0; i < scanner.size(); ++i) {
+      if (scanner.isCommented(i)) {
+        continue;
+      }
+      TextRange argument = scanner.expression(i).getTextRange();
+      for (TextRange range : ranges) {
+        if (range.isEmpty()) {
+          atCaret[i] |= argument.containsOffset(range.getStartOffset())
+              && range.getStartOffset() < argument.getEndOffset();
+        } else {
+          inRange[i] |= argument.intersectsStrict(range);
+        }
+      }
+      inRange[i] &= !atCaret[i] && settings.isReported(scanner.kind(i));
+      any |= atCaret[i] || inRange[i];
+    }
+    if (!any) {
+      return 0;
+    }
+
+    PsiMethod method = call instanceof PsiNewExpression
+        ? ((PsiNewExpression) call).resolveConstructor() : call.resolveMethod();
+    if (method == null) {
+      ++unresolvedCalls;
+      return 0;
+    }
+    MethodDescriptor descriptor = MethodDescriptor.of(method);
+    boolean reported = scanner.size() >= settings.minimumArgumentCount
+        && !descriptor.isBlackListed(settings.blacklist);
+    String[] parameterNames = descriptor.parameterNames;
+    int added = 0;
+    for (int i = 0; i < scanner.size() && i < parameterNames.length; ++i) {
+      boolean varargs = descriptor.varargsIndex >= 0 && i >= descriptor.varargsIndex;
+      if (parameterNames[i] != null
+          && (atCaret[i] || (inRange[i] && reported && !varargs))) {
+        addComment(project, parameterNames[i], scanner.expression(i), scanner.trailingComment(i));
+        ++added;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Comments every call in {@code targets} with its ranges, in order, and returns how many comments
+   * were added.
+   */
+  int comment(Map<PsiCallExpression, List<TextRange>> targets) {
+    int added = 0;
+    for (Map.Entry<PsiCallExpression, List<TextRange>> target : targets.entrySet()) {
+      if (target.getKey().isValid()) {
+        added += comment(target.getKey(), target.getValue());
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Chooses {@code range} in every call whose argument list it overlaps.
+   */
+  static void addRange(Map<PsiCallExpression, List<TextRange>> targets, PsiFile file,
+      TextRange range) {
+    for (PsiCallExpression call : callsIn(file, range)) {
+      targets.computeIfAbsent(call, key -> new ArrayList<>()).add(range);
+    }
+  }
+
+  /**
+   * Returns the calls whose argument lists overlap {@code range}, outermost first.
+   */
+  private static List<PsiCallExpression> callsIn(PsiFile file, TextRange range) {
+    List<PsiCallExpression> calls = new ArrayList<>();
+    PsiElement common = commonParent(file, range);
+    if (common == null) {
+      return calls;
+    }
+    PsiCallExpression enclosing =
+        PsiTreeUtil.getParentOfType(common, PsiCallExpression.class, /* strict= */ false);
+    if (enclosing != null && overlaps(enclosing, range)) {
+      calls.add(enclosing);
+    }
+    for (PsiCallExpression call
+        : PsiTreeUtil.findChildrenOfType(common, PsiCallExpression.class)) {
+      if (overlaps(call, range)) {
+        calls.add(call);
+      }
+    }
+    return calls;
+  }
+
+  /**
+   * Returns true if {@code range} overlaps an uncommented argument that {@code settings} reports,
+   * stopping at the first one. Only looks at syntax, so the argument may still turn out to be
+   * blacklisted or varargs.
+   */
+  static boolean hasCandidatesIn(PsiFile file, TextRange range, InspectionSettings settings) {
+    PsiElement common = commonParent(file, range);
+    if (common == null) {
+      return false;
+    }
+    ArgumentScanner scanner = new ArgumentScanner();
+    PsiCallExpression enclosing =
+        PsiTreeUtil.getParentOfType(common, PsiCallExpression.class, /* strict= */ false);
+    if (enclosing != null && hasCandidatesIn(enclosing, range, settings, scanner)) {
+      return true;
+    }
+    return !PsiTreeUtil.processElements(common, element -> !(element instanceof PsiCallExpression)
+        || !hasCandidatesIn((PsiCallExpression) element, range, settings, scanner));
+  }
+
+  private static boolean hasCandidatesIn(PsiCallExpression call, TextRange range,
+      InspectionSettings settings, ArgumentScanner scanner) {
+    if (!overlaps(call, range)) {
+      return false;
+    }
+    scanner.scan(call.getArgumentList());
+    if (scanner.size() < settings.minimumArgumentCount) {
+      return false;
+    }
+    for (int i = 0; i < scanner.size(); ++i) {
+      if (!scanner.isCommented(i) && settings.isReported(scanner.kind(i))
+          && scanner.expression(i).getTextRange().intersectsStrict(range)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private static PsiElement commonParent(PsiFile file, TextRange range) {
+    if (range.isEmpty()) {
+      return null;
+    }
+    PsiElement first = file.findElementAt(range.getStartOffset());
+    PsiElement last = file.findElementAt(range.getEndOffset() - 1);
+    return first == null || last == null ? null : PsiTreeUtil.findCommonParent(first, last);
+  }
+
+  private static boolean overlaps(PsiCallExpression call, TextRange range) {
+    PsiExpressionList arguments = call.getArgumentList();
+    return arguments != null && !arguments.isEmpty()
+        && arguments.getTextRange().intersectsStrict(range);
+  }
+}
@@ -0,0 +1,394 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.LineTokenizer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.diff.Diff;
+import com.intellij.util.diff.FilesTooBigForDiffException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The lines of a file that differ from a git revision, for checking only the code a change
+ * touches.
+ *
+ * <p>Git is run once per repository and revision, at most every {@link #CHANGES_TTL_MILLIS} ms, to
+ * list the files that differ from it. Files not in that list and without unsaved edits are
+ * unchanged without running anything else. For the others, the revision's version of the file is
+ * read with {@code git show} and diffed against the document in process, so unsaved edits count as
+ * changes. A file's contents at a commit are cached since they never change, and the diff is
+ * cached on the document until it's edited.
+ *
+ * <p>Highlighting never waits for git: until what it needs has been loaded on a pooled thread, the
+ * file is treated as unchanged, and highlighting is restarted once the load finishes. Batch runs
+ * wait instead, and can be cancelled while git runs.
+ */
+final class ChangedLines {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  private static final int GIT_TIMEOUT_MILLIS = 10_000;
+  private static final long CHANGES_TTL_MILLIS = 5_000;
+  private static final int MAX_CACHED_CONTENTS = 128;
+
+  private static final Key<ChangedLines> KEY = Key.create("LiteralArguments.changedLines");
+
+  /**
+   * What differs from each revision, by {@code root + '\0' + revision}.
+   */
+  private static final Map<String, Changes> CHANGES = new ConcurrentHashMap<>();
+
+  /**
+   * Keys of {@link #CHANGES} and {@link #CONTENTS} being loaded on a pooled thread.
+   */
+  private static final Set<String> LOADING = ConcurrentHashMap.newKeySet();
+
+  /**
+   * File contents by {@code commit:path}, or null where git failed.
+   */
+  private static final Map<String, String> CONTENTS =
+      new LinkedHashMap<String, String>(/* initialCapacity= */ 16, /* loadFactor= */ 0.75f,
+          /* accessOrder= */ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_CACHED_CONTENTS;
+        }
+      };
+
+  private static final class Changes {
+
+    /**
+     * The commit the revision resolved to, or null if it didn't.
+     */
+    @Nullable
+    final String commit;
+    /**
+     * Paths relative to the root that differ from the commit, mapped to true where the file didn't
+     * exist at the commit.
+     */
+    final Map<String, Boolean> paths;
+    final long loadedAt;
+
+    Changes(@Nullable String commit, Map<String, Boolean> paths, long loadedAt) {
+      this.commit = commit;
+      this.paths = paths;
+      this.loadedAt = loadedAt;
+    }
+
+    boolean isStale() {
+      return System.currentTimeMillis() - loadedAt > CHANGES_TTL_MILLIS;
+    }
+
+    boolean isSame(@Nullable Changes other) {
+      return other != null && Objects.equals(commit, other.commit) && paths.equals(other.paths);
+    }
+  }
+
+  private final Document document;
+  private final long modificationStamp;
+  private final String commit;
+  /**
+   * Sorted, non-overlapping {@code [first line, last line)} pairs in the document.
+   */
+  private final int[] ranges;
+
+  private ChangedLines(Document document, String commit, int[] ranges) {
+    this.document = document;
+    this.modificationStamp = document.getModificationStamp();
+    this.commit = commit;
+    this.ranges = ranges;
+  }
+
+  /**
+   * Returns the lines of {@code file} changed since {@code base}, or null if the file isn't in a
+   * git repository or git failed, in which case every line should be checked. Unless
+   * {@code wait}, returns no lines while git is still running in the background.
+   */
+  @Nullable
+  static ChangedLines of(PsiFile file, String base, boolean wait) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    Document document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
+    VirtualFile root = virtualFile == null ? null : findRoot(virtualFile);
+    if (document == null || root == null) {
+      return null;
+    }
+    Project project = file.getProject();
+    String changesKey = root.getPath() + '\0' + base;
+    Changes changes = CHANGES.get(changesKey);
+    if (changes == null || changes.isStale()) {
+      Changes previous = changes;
+      if (wait) {
+        changes = loadChanges(root, base, changesKey, currentIndicator());
+      } else {
+        loadInBackground(project, changesKey,
+            () -> !loadChanges(root, base, changesKey, new EmptyProgressIndicator())
+                .isSame(previous));
+        if (changes == null) {
+          return new ChangedLines(document, "", new int[0]);
+        }
+      }
+    }
+    String commit = changes.commit;
+    if (commit == null) {
+      return null;
+    }
+    ChangedLines cached = document.getUserData(KEY);
+    if (cached != null && cached.modificationStamp == document.getModificationStamp()
+        && cached.commit.equals(commit)) {
+      return cached;
+    }
+    String path = VfsUtilCore.getRelativePath(virtualFile, root, '/');
+    if (path == null) {
+      return null;
+    }
+
+    Boolean added = changes.paths.get(path);
+    String baseText;
+    if (added == null && !FileDocumentManager.getInstance().isDocumentUnsaved(document)) {
+      return cache(new ChangedLines(document, commit, new int[0]));
+    } else if (Boolean.TRUE.equals(added)) {
+      baseText = "";
+    } else {
+      String contentsKey = commit + ':' + path;
+      boolean loaded;
+      synchronized (CONTENTS) {
+        loaded = CONTENTS.containsKey(contentsKey);
+      }
+      if (!loaded && !wait) {
+        loadInBackground(project, contentsKey, () -> {
+          show(root, contentsKey, new EmptyProgressIndicator());
+          return true;
+        });
+        return new ChangedLines(document, commit, new int[0]);
+      }
+      baseText = show(root, contentsKey, currentIndicator());
+    }
+    if (baseText == null) {
+      return null;
+    }
+    return cache(new ChangedLines(document, commit, diff(baseText, document.getCharsSequence())));
+  }
+
+  private static ChangedLines cache(ChangedLines changed) {
+    changed.document.putUserData(KEY, changed);
+    return changed;
+  }
+
+  boolean isEmpty() {
+    return ranges.length == 0;
+  }
+
+  /**
+   * Returns true if any line of {@code range} changed.
+   */
+  boolean intersects(TextRange range) {
+    if (range.getEndOffset() > document.getTextLength()) {
+      return true;
+    }
+    int first = document.getLineNumber(range.getStartOffset());
+    int last = document.getLineNumber(Math.max(range.getStartOffset(), range.getEndOffset() - 1));
+    // The last range starting at or before the call's last line
+    int low = 0;
+    int high = ranges.length / 2 - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (ranges[mid * 2] <= last) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return found >= 0 && ranges[found * 2 + 1] > first;
+  }
+
+  /**
+   * Returns the {@code [first, last)} line ranges of {@code current} that were inserted or
+   * replaced since {@code base}. Deleted lines leave nothing to check.
+   */
+  private static int[] diff(String base, CharSequence current) {
+    String[] baseLines = LineTokenizer.tokenize(StringUtil.convertLineSeparators(base), false);
+    String[] currentLines = LineTokenizer.tokenize(current, false);
+    Diff.Change change;
+    try {
+      change = Diff.buildChanges(baseLines, currentLines);
+    } catch (FilesTooBigForDiffException e) {
+      return new int[] {0, currentLines.length};
+    }
+    int[] ranges = new int[16];
+    int size = 0;
+    for (; change != null; change = change.link) {
+      if (change.inserted == 0) {
+        continue;
+      }
+      if (size == ranges.length) {
+        ranges = Arrays.copyOf(ranges, size * 2);
+      }
+      ranges[size++] = change.line1;
+      ranges[size++] = change.line1 + change.inserted;
+    }
+    return Arrays.copyOf(ranges, size);
+  }
+
+  /**
+   * Returns the closest directory above {@code file} that holds a git repository, or null.
+   */
+  @Nullable
+  static VirtualFile findRoot(VirtualFile file) {
+    for (VirtualFile dir = file.getParent(); dir != null; dir = dir.getParent()) {
+      if (dir.findChild(".git") != null) {
+        return dir;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Runs {@code load} on a pooled thread unless {@code key} is already loading, and restarts
+   * highlighting if it returns true.
+   */
+  private static void loadInBackground(Project project, String key, BooleanSupplier load) {
+    if (!LOADING.add(key)) {
+      return;
+    }
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      try {
+        if (load.getAsBoolean() && !project.isDisposed()) {
+          DaemonCodeAnalyzer.getInstance(project).restart();
+        }
+      } finally {
+        LOADING.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Resolves {@code base} and lists the tracked files that differ from it, in the index or the
+   * working tree, and the untracked files.
+   */
+  private static Changes loadChanges(VirtualFile root, String base, String key,
+      ProgressIndicator indicator) {
+    String output = git(root, indicator, "rev-parse", "--verify", "--quiet", base + "^{commit}");
+    String commit = output == null ? null : output.trim();
+    Map<String, Boolean> paths = new HashMap<>();
+    if (commit != null) {
+      String diff = git(root, indicator, "diff", "--name-status", "--no-renames", "-z", commit);
+      String untracked = git(root, indicator, "ls-files", "--others", "--exclude-standard", "-z");
+      if (diff == null || untracked == null) {
+        commit = null;
+      } else {
+        // Status and path alternate, each terminated by NUL
+        String[] fields = diff.split("\0");
+        for (int f = 0; f + 1 < fields.length; f += 2) {
+          if (!fields[f].startsWith("D")) {
+            paths.put(fields[f + 1], fields[f].startsWith("A"));
+          }
+        }
+        for (String path : untracked.split("\0")) {
+          if (!path.isEmpty()) {
+            paths.put(path, true);
+          }
+        }
+      }
+    }
+    Changes changes = new Changes(commit, paths, System.currentTimeMillis());
+    Changes previous = CHANGES.put(key, changes);
+    if (commit == null && (previous == null || previous.commit != null)) {
+      LOG.warn("Can't compare with " + base + " in " + root.getPath()
+          + ", checking every line instead of changed lines");
+    }
+    return changes;
+  }
+
+  /**
+   * Returns the file at {@code commit:path}, or null if git failed.
+   */
+  @Nullable
+  private static String show(VirtualFile root, String key, ProgressIndicator indicator) {
+    synchronized (CONTENTS) {
+      if (CONTENTS.containsKey(key)) {
+        return CONTENTS.get(key);
+      }
+    }
+    String text = git(root, indicator, "show", key);
+    synchronized (CONTENTS) {
+      CONTENTS.put(key, text);
+    }
+    return text;
+  }
+
+  private static ProgressIndicator currentIndicator() {
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    return indicator != null ? indicator : new EmptyProgressIndicator();
+  }
+
+  /**
+   * Runs git in {@code root} and returns its output, or null if it failed. Throws if
+   * {@code indicator} is cancelled while git runs.
+   */
+  @Nullable
+  private static String git(VirtualFile root, ProgressIndicator indicator, String... arguments) {
+    GeneralCommandLine command = new GeneralCommandLine("git")
+        .withParameters(arguments)
+        .withWorkDirectory(root.getPath())
+        .withCharset(StandardCharsets.UTF_8);
+    try {
+      ProcessOutput output = new CapturingProcessHandler(command)
+          .runProcessWithProgressIndicator(indicator, GIT_TIMEOUT_MILLIS);
+      if (output.isCancelled()) {
+        throw new ProcessCanceledException();
+      }
+      if (output.isTimeout()) {
+        LOG.warn(command.getCommandLineString() + " timed out after "
+            + TimeUnit.MILLISECONDS.toSeconds(GIT_TIMEOUT_MILLIS) + "s");
+        return null;
+      }
+      return output.getExitCode() == 0 ? output.getStdout() : null;
+    } catch (ExecutionException e) {
+      LOG.warn(e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,264 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.analysis.BaseAnalysisAction;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Adds a comment to every uncommented literal argument in a scope without blocking the UI.
+ *
+ * <p>Files are analyzed in parallel, each in a non-blocking read action that restarts if a write
+ * action needs the lock. The comments are then inserted on the EDT in batches of
+ * {@value #BATCH_SIZE}, one undoable command per batch, so cancelling keeps the batches already
+ * applied.
+ */
+public class CommentLiteralArgumentsAction extends BaseAnalysisAction implements LiteralFix {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  private static final String TITLE = "Comment Literal Arguments";
+  private static final int BATCH_SIZE = 500;
+
+  public CommentLiteralArgumentsAction() {
+    super(TITLE, "Literal Arguments");
+  }
+
+  /**
+   * A comment to insert.
+   */
+  private static final class Edit {
+
+    final SmartPsiElementPointer<PsiExpression> literal;
+    final String parameterName;
+
+    Edit(SmartPsiElementPointer<PsiExpression> literal, String parameterName) {
+      this.literal = literal;
+      this.parameterName = parameterName;
+    }
+  }
+
+  @Override
+  protected void analyze(@NotNull Project project, @NotNull AnalysisScope scope) {
+    InspectionSettings settings = getSettings(project);
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        DumbService.getInstance(project).waitForSmartMode();
+        indicator.setIndeterminate(false);
+        indicator.setText("Finding literal arguments");
+        List<VirtualFile> files =
+            ReadAction.compute(() -> findFiles(project, scope, settings.isCoveredByIndex()));
+        List<Edit> edits = findEdits(project, files, settings, indicator);
+        indicator.setText("Adding comments");
+        Set<PsiFile> changed = new LinkedHashSet<>();
+        int added = applyEdits(project, edits, indicator, changed);
+        notify(project, String.format("Added %d comments in %d files", added, changed.size()));
+      }
+
+      @Override
+      public void onCancel() {
+        notify(project, "Cancelled. Comments already added can be undone batch by batch.");
+      }
+
+      private void notify(Project project, String content) {
+        NotificationGroupManager.getInstance().getNotificationGroup("Literal Arguments")
+            .createNotification(content, NotificationType.INFORMATION).notify(project);
+      }
+    });
+  }
+
+  /**
+   * Returns the options of the inspection in the project's current profile.
+   */
+  static InspectionSettings getSettings(Project project) {
+    InspectionToolWrapper<?, ?> tool = InspectionProjectProfileManager.getInstance(project)
+        .getCurrentProfile().getInspectionTool(LiteralArgumentsInspection.SHORT_NAME, project);
+    return tool != null && tool.getTool() instanceof LiteralArgumentsInspection
+        ? ((LiteralArgumentsInspection) tool.getTool()).getSettings()
+        : InspectionSettings.getDefault();
+  }
+
+  /**
+   * Returns the Java files in scope that {@link LiteralCallSiteIndex} doesn't rule out.
+   */
+  static List<VirtualFile> findFiles(Project project, AnalysisScope scope, boolean useIndex) {
+    List<VirtualFile> files = new ArrayList<>();
+    scope.accept(file -> {
+      if (file.getFileType() == JavaFileType.INSTANCE
+          && (!useIndex || LiteralCallSiteIndex.mayHaveCandidates(project, file,
+              /* orParameterComments= */ false))) {
+        files.add(file);
+      }
+      return true;
+    });
+    return files;
+  }
+
+  /**
+   * Returns the edits for every file, grouped by file so that each batch touches few files.
+   */
+  private static List<Edit> findEdits(Project project, List<VirtualFile> files,
+      InspectionSettings settings, ProgressIndicator indicator) {
+    Map<VirtualFile, List<Edit>> editsByFile = new ConcurrentHashMap<>();
+    // Keeps the visitor's counters out of the highlighting metrics
+    InspectionMetrics metrics = new InspectionMetrics();
+    AtomicInteger done = new AtomicInteger();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> {
+      editsByFile.put(file,
+          ReadAction.nonBlocking(() -> findEdits(project, file, settings, metrics))
+              .executeSynchronously());
+      indicator.setFraction(0.5 * done.incrementAndGet() / files.size());
+      return true;
+    });
+
+    List<Edit> edits = new ArrayList<>();
+    for (VirtualFile file : files) {
+      edits.addAll(editsByFile.getOrDefault(file, Collections.emptyList()));
+    }
+    return edits;
+  }
+
+  /**
+   * Runs the inspection's visitor over one file and keeps the quick fixes it registers.
+   */
+  private static List<Edit> findEdits(Project project, VirtualFile file,
+      InspectionSettings settings, InspectionMetrics metrics) {
+    List<Edit> edits = new ArrayList<>();
+    SmartPointerManager pointers = SmartPointerManager.getInstance(project);
+    for (ProblemDescriptor problem : inspect(project, file, settings, metrics)) {
+      PsiElement element = problem.getPsiElement();
+      LiteralParamQuickFix fix = LiteralParamQuickFix.findFix(problem);
+      if (element instanceof PsiExpression && fix != null) {
+        edits.add(new Edit(pointers.createSmartPsiElementPointer((PsiExpression) element),
+            fix.getParamName()));
+      }
+    }
+    return edits;
+  }
+
+  /**
+   * Runs the inspection's visitor over one Java file without limits and returns its problems.
+   */
+  static List<ProblemDescriptor> inspect(Project project, VirtualFile file,
+      InspectionSettings settings, InspectionMetrics metrics) {
+    PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+    if (!(psiFile instanceof PsiJavaFile)) {
+      return Collections.emptyList();
+    }
+    ChangedLines changedLines = settings.changedLinesBase == null ? null
+        : ChangedLines.of(psiFile, settings.changedLinesBase, /* wait= */ true);
+    if (changedLines != null && changedLines.isEmpty()) {
+      return Collections.emptyList();
+    }
+    ProblemsHolder holder =
+        new ProblemsHolder(InspectionManager.getInstance(project), psiFile, false);
+    visitAll(psiFile, new LiteralArgumentElementVisitor(holder, settings, FileBudget.unlimited(),
+        Diagnostics.DISABLED, metrics, /* dumbModeNames= */ null, changedLines));
+    return holder.getResults();
+  }
+
+  /**
+   * Passes every element of {@code file} to {@code visitor}, as a batch inspection run does.
+   */
+  static void visitAll(PsiFile file, PsiElementVisitor visitor) {
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(@NotNull PsiElement element) {
+        element.accept(visitor);
+        super.visitElement(element);
+      }
+    });
+  }
+
+  private int applyEdits(Project project, List<Edit> edits, ProgressIndicator indicator,
+      Set<PsiFile> changed) {
+    int added = 0;
+    for (int start = 0; start < edits.size(); start += BATCH_SIZE) {
+      indicator.checkCanceled();
+      indicator.setFraction(0.5 + 0.5 * start / edits.size());
+      List<Edit> batch = edits.subList(start, Math.min(edits.size(), start + BATCH_SIZE));
+      AtomicInteger batchAdded = new AtomicInteger();
+      ApplicationManager.getApplication().invokeAndWait(() -> {
+        Set<PsiFile> files = new LinkedHashSet<>();
+        for (Edit edit : batch) {
+          PsiFile file = edit.literal.getContainingFile();
+          if (file != null) {
+            files.add(file);
+          }
+        }
+        WriteCommandAction.writeCommandAction(project, files.toArray(PsiFile.EMPTY_ARRAY))
+            .withName(TITLE)
+            .run(() -> batchAdded.set(addComments(project, batch, changed)));
+      });
+      added += batchAdded.get();
+    }
+    return added;
+  }
+
+  private int addComments(Project project, List<Edit> batch, Set<PsiFile> changed) {
+    int added = 0;
+    for (Edit edit : batch) {
+      PsiExpression literal = edit.literal.getElement();
+      if (literal == null || isCommented(literal)) {
+        continue;
+      }
+      try {
+        addComment(project, edit.parameterName, literal);
+        changed.add(literal.getContainingFile());
+        ++added;
+      } catch (Exception e) {
+        LOG.error(e);
+      }
+    }
+    return added;
+  }
+}
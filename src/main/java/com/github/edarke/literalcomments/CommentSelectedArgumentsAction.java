@@ -0,0 +1,79 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Caret;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Comments the reported literal arguments of every call in the editor's selections, the same way
+ * {@link OptionalRefactor} does for a selection, with one undoable command for all of them.
+ */
+public class CommentSelectedArgumentsAction extends AnAction {
+
+  private static final String TITLE = "Comment Literal Arguments in Selection";
+
+  @Override
+  public void update(@NotNull AnActionEvent event) {
+    Project project = event.getProject();
+    Editor editor = event.getData(CommonDataKeys.EDITOR);
+    PsiFile file = event.getData(CommonDataKeys.PSI_FILE);
+    event.getPresentation().setEnabledAndVisible(project != null && editor != null
+        && file instanceof PsiJavaFile && editor.getSelectionModel().hasSelection()
+        && !DumbService.isDumb(project));
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    Project project = event.getProject();
+    Editor editor = event.getData(CommonDataKeys.EDITOR);
+    PsiFile file = event.getData(CommonDataKeys.PSI_FILE);
+    if (project == null || editor == null || file == null) {
+      return;
+    }
+    PsiDocumentManager.getInstance(project).commitDocument(editor.getDocument());
+    CallCommenter commenter =
+        new CallCommenter(project, CommentLiteralArgumentsAction.getSettings(project));
+    int added = WriteCommandAction.writeCommandAction(project, file).withName(TITLE).compute(() -> {
+      Map<PsiCallExpression, List<TextRange>> targets = new LinkedHashMap<>();
+      for (Caret caret : editor.getCaretModel().getAllCarets()) {
+        if (caret.hasSelection()) {
+          CallCommenter.addRange(targets, file,
+              new TextRange(caret.getSelectionStart(), caret.getSelectionEnd()));
+        }
+      }
+      return commenter.comment(targets);
+    });
+    if (added == 0) {
+      HintManager.getInstance().showInformationHint(editor, commenter.getUnresolvedCalls() > 0
+          ? "Cannot resolve the called method" : "No uncommented literal arguments in selection");
+    }
+  }
+}
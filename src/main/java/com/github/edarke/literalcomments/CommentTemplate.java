@@ -0,0 +1,97 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.LiteralFix.COMMENT_FORMAT_KEY;
+import static com.github.edarke.literalcomments.LiteralFix.DEFAULT_COMMENT_FORMAT;
+
+import com.intellij.ide.util.PropertiesComponent;
+
+/**
+ * The configured comment format, split around its {@code %s} once instead of being parsed by
+ * {@link String#format} for every comment.
+ */
+final class CommentTemplate {
+
+  private static volatile CommentTemplate current;
+
+  private final String format;
+  private final String prefix;
+  private final String suffix;
+  private final boolean simple;
+
+  private CommentTemplate(String format) {
+    this.format = format;
+    int placeholder = format.indexOf("%s");
+    this.simple = placeholder >= 0 && format.indexOf('%') == placeholder
+        && format.indexOf('%', placeholder + 1) < 0;
+    this.prefix = simple ? format.substring(0, placeholder) : "";
+    this.suffix = simple ? format.substring(placeholder + 2) : "";
+  }
+
+  static CommentTemplate current() {
+    CommentTemplate template = current;
+    if (template == null) {
+      template = new CommentTemplate(PropertiesComponent.getInstance()
+          .getValue(COMMENT_FORMAT_KEY, DEFAULT_COMMENT_FORMAT));
+      current = template;
+    }
+    return template;
+  }
+
+  static void update(String format) {
+    current = new CommentTemplate(format);
+  }
+
+  String format(String argumentName) {
+    return simple ? prefix + argumentName + suffix : String.format(format, argumentName);
+  }
+
+  /**
+   * Compares an existing comment to one generated by this template, ignoring spaces, '=' and case
+   * and allowing the generated name to contain underscores.
+   */
+  static boolean isSameComment(String existing, String generated) {
+    int i = 0;
+    int j = 0;
+    while (true) {
+      i = skip(existing, i, false);
+      j = skip(generated, j, true);
+      if (i == existing.length() || j == generated.length()) {
+        return i == existing.length() && j == generated.length();
+      }
+      if (!equalsIgnoreCase(existing.charAt(i), generated.charAt(j))) {
+        return false;
+      }
+      ++i;
+      ++j;
+    }
+  }
+
+  private static boolean equalsIgnoreCase(char a, char b) {
+    return Character.toUpperCase(a) == Character.toUpperCase(b)
+        || Character.toLowerCase(a) == Character.toLowerCase(b);
+  }
+
+  private static int skip(String text, int index, boolean skipUnderscores) {
+    while (index < text.length()) {
+      char c = text.charAt(index);
+      if (c != ' ' && c != '=' && !(skipUnderscores && c == '_')) {
+        break;
+      }
+      ++index;
+    }
+    return index;
+  }
+}
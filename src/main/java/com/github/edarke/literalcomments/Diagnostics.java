@@ -0,0 +1,61 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.openapi.diagnostic.Logger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in channel for explaining the inspection's decisions in idea.log. Only one in
+ * {@code sampleRate} events is logged, and at most {@code maxPerMinute} of those per minute, so
+ * leaving it on while reproducing a false positive can't flood the log.
+ */
+final class Diagnostics {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  static final Diagnostics DISABLED = new Diagnostics(/* sampleRate= */ 0, /* maxPerMinute= */ 0);
+
+  private final int sampleRate;
+  private final int maxPerMinute;
+  private final AtomicLong events = new AtomicLong();
+  private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+  private final AtomicInteger loggedInWindow = new AtomicInteger();
+
+  Diagnostics(int sampleRate, int maxPerMinute) {
+    this.sampleRate = sampleRate;
+    this.maxPerMinute = maxPerMinute;
+  }
+
+  /**
+   * Returns true if the caller should build and {@link #log} a message for the current event.
+   */
+  boolean shouldLog() {
+    if (sampleRate <= 0 || events.incrementAndGet() % sampleRate != 0) {
+      return false;
+    }
+    long now = System.nanoTime();
+    long start = windowStart.get();
+    if (now - start > TimeUnit.MINUTES.toNanos(1) && windowStart.compareAndSet(start, now)) {
+      loggedInWindow.set(0);
+    }
+    return loggedInWindow.incrementAndGet() <= maxPerMinute;
+  }
+
+  void log(String message) {
+    LOG.info(message);
+  }
+}
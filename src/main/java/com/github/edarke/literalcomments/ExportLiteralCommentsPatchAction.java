@@ -0,0 +1,265 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.analysis.BaseAnalysisAction;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaToken;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiWhiteSpace;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes the comments {@link CommentLiteralArgumentsAction} would add in a scope to a patch file
+ * instead, for review and {@code git apply}.
+ *
+ * <p>No document, PSI or editor is changed or opened. Files are inspected in parallel, each in a
+ * non-blocking read action, and each comment becomes an insertion at the argument's offset with
+ * the text {@link LiteralFix#addComment} would insert. A file's diff is appended to the patch as
+ * soon as it's ready, so the patch is never held in memory. Every path is relative to the same
+ * directory: the files' git repository, the closest directory holding all of their repositories,
+ * or the project directory for files outside one.
+ */
+public class ExportLiteralCommentsPatchAction extends BaseAnalysisAction {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  private static final String TITLE = "Export Literal Comments as Patch";
+
+  public ExportLiteralCommentsPatchAction() {
+    super(TITLE, "Literal Arguments");
+  }
+
+  /**
+   * One file's diff, encoded like the file.
+   */
+  private static final class FilePatch {
+
+    final byte[] diff;
+    final int comments;
+
+    FilePatch(byte[] diff, int comments) {
+      this.diff = diff;
+      this.comments = comments;
+    }
+  }
+
+  @Override
+  protected void analyze(@NotNull Project project, @NotNull AnalysisScope scope) {
+    VirtualFileWrapper target = FileChooserFactory.getInstance()
+        .createSaveFileDialog(
+            new FileSaverDescriptor(TITLE, "Save the comments as a patch", "patch"), project)
+        .save(/* baseDir= */ null, "literal-arguments.patch");
+    if (target == null) {
+      return;
+    }
+    // The patch is made from the PSI, which only matches the files on disk once they're saved
+    FileDocumentManager.getInstance().saveAllDocuments();
+    InspectionSettings settings = CommentLiteralArgumentsAction.getSettings(project);
+    Path path = target.getFile().toPath();
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        DumbService.getInstance(project).waitForSmartMode();
+        indicator.setIndeterminate(false);
+        indicator.setText("Finding literal arguments");
+        List<VirtualFile> files = ReadAction.compute(() -> CommentLiteralArgumentsAction
+            .findFiles(project, scope, settings.isCoveredByIndex()));
+        VirtualFile base = findBase(project, files);
+        indicator.setText("Writing " + path.getFileName());
+        int[] counts;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+          counts = export(project, base, files, settings, out, indicator);
+        } catch (IOException e) {
+          LOG.warn(e);
+          notify(project, "Couldn't write " + path + ": " + e.getMessage(),
+              NotificationType.ERROR);
+          return;
+        }
+        notify(project, String.format("Wrote %d comments in %d files to %s", counts[0],
+            counts[1], path), NotificationType.INFORMATION);
+      }
+    });
+  }
+
+  private static void notify(Project project, String content, NotificationType type) {
+    NotificationGroupManager.getInstance().getNotificationGroup("Literal Arguments")
+        .createNotification(content, type).notify(project);
+  }
+
+  /**
+   * Appends the diff of every file to {@code out} as it's computed, and returns the number of
+   * comments and of files with any.
+   */
+  private static int[] export(Project project, @Nullable VirtualFile base,
+      List<VirtualFile> files, InspectionSettings settings, OutputStream out,
+      ProgressIndicator indicator) throws IOException {
+    // Keeps the visitor's counters out of the highlighting metrics
+    InspectionMetrics metrics = new InspectionMetrics();
+    AtomicInteger done = new AtomicInteger();
+    AtomicInteger comments = new AtomicInteger();
+    AtomicInteger changedFiles = new AtomicInteger();
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> {
+      FilePatch patch = ReadAction.nonBlocking(() -> diff(project, base, file, settings, metrics))
+          .executeSynchronously();
+      if (patch != null) {
+        synchronized (out) {
+          try {
+            out.write(patch.diff);
+          } catch (IOException e) {
+            failure.set(e);
+            return false;
+          }
+        }
+        comments.addAndGet(patch.comments);
+        changedFiles.incrementAndGet();
+      }
+      indicator.setFraction((double) done.incrementAndGet() / files.size());
+      return true;
+    });
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return new int[]{comments.get(), changedFiles.get()};
+  }
+
+  /**
+   * Returns the diff adding every comment the inspection asks for in {@code file}, or null if
+   * there are none or the file isn't under {@code base}.
+   */
+  @Nullable
+  private static FilePatch diff(Project project, @Nullable VirtualFile base, VirtualFile file,
+      InspectionSettings settings, InspectionMetrics metrics) {
+    List<ProblemDescriptor> problems =
+        CommentLiteralArgumentsAction.inspect(project, file, settings, metrics);
+    PsiFile psiFile = problems.isEmpty() ? null : PsiManager.getInstance(project).findFile(file);
+    String path = psiFile == null || base == null ? null
+        : VfsUtilCore.getRelativePath(file, base, '/');
+    if (path == null) {
+      return null;
+    }
+    // PSI offsets don't count a byte order mark, but git compares the whole first line
+    String bom = Arrays.equals(file.getBOM(), CharsetToolkit.UTF8_BOM) ? "\uFEFF" : "";
+    CommentTemplate template = CommentTemplate.current();
+    List<UnifiedDiff.Edit> edits = new ArrayList<>();
+    int comments = 0;
+    for (ProblemDescriptor problem : problems) {
+      PsiElement element = problem.getPsiElement();
+      LiteralParamQuickFix fix = LiteralParamQuickFix.findFix(problem);
+      if (element instanceof PsiExpression && fix != null) {
+        addEdits(edits, (PsiExpression) element, template.format(fix.getParamName()),
+            bom.length());
+        ++comments;
+      }
+    }
+    if (comments == 0) {
+      return null;
+    }
+    String text = bom + psiFile.getViewProvider().getContents();
+    String lineSeparator = "\r\n".equals(file.getDetectedLineSeparator()) ? "\r\n" : "\n";
+    String diff = UnifiedDiff.diff(path, text, edits, lineSeparator);
+    return new FilePatch(diff.getBytes(bom.isEmpty() ? file.getCharset() : StandardCharsets.UTF_8),
+        comments);
+  }
+
+  /**
+   * Adds the edits {@link LiteralFix#addComment} would make: the comment and a space before the
+   * argument, with another space if it directly follows a comma, and the deletion of the comment
+   * after the argument if it names the same parameter.
+   */
+  private static void addEdits(List<UnifiedDiff.Edit> edits, PsiExpression argument,
+      String comment, int shift) {
+    int start = argument.getTextRange().getStartOffset() + shift;
+    PsiElement previous = argument.getPrevSibling();
+    boolean afterComma = previous instanceof PsiJavaToken
+        && ((PsiJavaToken) previous).getTokenType() == JavaTokenType.COMMA;
+    edits.add(new UnifiedDiff.Edit(start, start, (afterComma ? " " : "") + comment + " "));
+
+    PsiComment trailingComment = ArgumentScanner.trailingComment(argument);
+    if (trailingComment != null
+        && CommentTemplate.isSameComment(trailingComment.getText(), comment)) {
+      PsiElement before = trailingComment.getPrevSibling();
+      int from = (before instanceof PsiWhiteSpace ? before : trailingComment).getTextRange()
+          .getStartOffset();
+      edits.add(new UnifiedDiff.Edit(from + shift,
+          trailingComment.getTextRange().getEndOffset() + shift, ""));
+    }
+  }
+
+  /**
+   * Returns the directory the patch's paths are relative to, so that they all apply from one
+   * place even when the scope spans several repositories.
+   */
+  @Nullable
+  private static VirtualFile findBase(Project project, List<VirtualFile> files) {
+    VirtualFile projectDir = ProjectUtil.guessProjectDir(project);
+    Set<VirtualFile> directories = new HashSet<>();
+    VirtualFile base = null;
+    for (VirtualFile file : files) {
+      if (!directories.add(file.getParent())) {
+        continue;
+      }
+      VirtualFile root = ChangedLines.findRoot(file);
+      if (root == null) {
+        root = projectDir;
+      }
+      // Files on another drive than the first share no directory with it and are left out
+      VirtualFile common =
+          base == null || root == null ? root : VfsUtilCore.getCommonAncestor(base, root);
+      if (common != null) {
+        base = common;
+      }
+    }
+    return base;
+  }
+}
@@ -0,0 +1,63 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time the inspection spends on one file and the number of problems it reports there,
+ * so a generated file with thousands of literal arguments can't stall highlighting. Time is the
+ * visitor's own, so a pass that waits on other inspections isn't stopped early. A budget belongs
+ * to one pass over one file and isn't thread-safe.
+ */
+final class FileBudget {
+
+  private final int maxProblems;
+  private final long maxMillis;
+  private final long maxNanos;
+  private int problems;
+
+  /**
+   * @param maxProblems the number of problems to report, or 0 for no limit
+   * @param maxMillis the time to spend visiting calls, or 0 for no limit
+   */
+  FileBudget(int maxProblems, long maxMillis) {
+    this.maxProblems = maxProblems;
+    this.maxMillis = maxMillis;
+    this.maxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+  }
+
+  static FileBudget unlimited() {
+    return new FileBudget(/* maxProblems= */ 0, /* maxMillis= */ 0);
+  }
+
+  void problemRegistered() {
+    ++problems;
+  }
+
+  /**
+   * Returns why the budget has run out, or null if it hasn't.
+   *
+   * @param visitNanos the time the visitor has spent on the file so far
+   */
+  String exceeded(long visitNanos) {
+    if (maxProblems > 0 && problems >= maxProblems) {
+      return String.format("Stopped checking literal arguments after %d problems", maxProblems);
+    }
+    if (maxMillis > 0 && visitNanos >= maxNanos) {
+      return String.format("Stopped checking literal arguments after %d ms", maxMillis);
+    }
+    return null;
+  }
+}
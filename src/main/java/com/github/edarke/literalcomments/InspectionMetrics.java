@@ -0,0 +1,184 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on counters for the inspection, for telling whether it is what makes highlighting slow.
+ * Every counter is a {@link LongAdder}, so highlighting threads never contend on an update.
+ *
+ * <p>Time per file is the time its visitor spent in calls, kept as a histogram with one bucket per
+ * power of two nanoseconds.
+ */
+final class InspectionMetrics {
+
+  static final InspectionMetrics GLOBAL = new InspectionMetrics();
+
+  private static final int BUCKETS = 64;
+
+  final LongAdder callsVisited = new LongAdder();
+  final LongAdder resolves = new LongAdder();
+  final LongAdder blacklistHits = new LongAdder();
+  final LongAdder problemsRegistered = new LongAdder();
+  final LongAdder filesStopped = new LongAdder();
+  final LongAdder generatedFilesSkipped = new LongAdder();
+  private final LongAdder files = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] fileNanos = new LongAdder[BUCKETS];
+  private final ParameterNameCache parameterNames;
+  private volatile long resetAt = System.currentTimeMillis();
+
+  InspectionMetrics() {
+    this(ParameterNameCache.GLOBAL);
+  }
+
+  InspectionMetrics(ParameterNameCache parameterNames) {
+    this.parameterNames = parameterNames;
+    for (int i = 0; i < BUCKETS; ++i) {
+      fileNanos[i] = new LongAdder();
+    }
+  }
+
+  void recordFile(long nanos) {
+    files.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    fileNanos[bucket(nanos)].increment();
+  }
+
+  /**
+   * Bucket {@code i} holds times in {@code [2^(i-1), 2^i)}, and bucket 0 holds zero.
+   */
+  private static int bucket(long nanos) {
+    return Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+  }
+
+  private static long upperBound(int bucket) {
+    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  void reset() {
+    callsVisited.reset();
+    resolves.reset();
+    blacklistHits.reset();
+    problemsRegistered.reset();
+    filesStopped.reset();
+    generatedFilesSkipped.reset();
+    files.reset();
+    totalNanos.reset();
+    maxNanos.reset();
+    for (LongAdder bucket : fileNanos) {
+      bucket.reset();
+    }
+    parameterNames.resetStats();
+    resetAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Returns the upper bound of the bucket containing the given percentile of file times, or 0 if
+   * no file has been inspected.
+   */
+  long percentileNanos(double percentile) {
+    long[] counts = bucketCounts();
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if (seen >= rank && counts[i] > 0) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+
+  private long[] bucketCounts() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts[i] = fileNanos[i].sum();
+    }
+    return counts;
+  }
+
+  private static double hitRate(ParameterNameCache cache) {
+    long hits = cache.hits();
+    long lookups = hits + cache.misses();
+    return lookups == 0 ? 0 : hits / (double) lookups;
+  }
+
+  String summary() {
+    long fileCount = files.sum();
+    return String.format("Files inspected: %,d%n"
+            + "Calls visited: %,d%n"
+            + "Calls resolved: %,d%n"
+            + "Blacklisted methods: %,d%n"
+            + "Problems registered: %,d%n"
+            + "Files stopped by a budget: %,d%n"
+            + "Generated files skipped: %,d%n"
+            + "Time per file: mean %s, p50 < %s, p99 < %s, max %s%n"
+            + "Parameter name cache: %.1f%% hits, %,d entries, %,d KB",
+        fileCount, callsVisited.sum(), resolves.sum(), blacklistHits.sum(),
+        problemsRegistered.sum(), filesStopped.sum(), generatedFilesSkipped.sum(),
+        millis(fileCount == 0 ? 0 : totalNanos.sum() / fileCount), millis(percentileNanos(50)),
+        millis(percentileNanos(99)), millis(maxNanos.get()),
+        100 * hitRate(parameterNames), parameterNames.size(), parameterNames.bytes() / 1024);
+  }
+
+  private static String millis(long nanos) {
+    return String.format("%.3fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  /**
+   * Serializes a snapshot of every counter. Counters are read one at a time while highlighting may
+   * still be running, so they can be off by the few calls in flight.
+   */
+  String toJson(String pluginVersion) {
+    StringBuilder json = new StringBuilder("{\n");
+    json.append("  \"pluginVersion\": \"").append(pluginVersion).append("\",\n");
+    json.append("  \"since\": ").append(resetAt).append(",\n");
+    json.append("  \"snapshot\": ").append(System.currentTimeMillis()).append(",\n");
+    json.append("  \"callsVisited\": ").append(callsVisited.sum()).append(",\n");
+    json.append("  \"resolves\": ").append(resolves.sum()).append(",\n");
+    json.append("  \"blacklistHits\": ").append(blacklistHits.sum()).append(",\n");
+    json.append("  \"problemsRegistered\": ").append(problemsRegistered.sum()).append(",\n");
+    json.append("  \"filesStopped\": ").append(filesStopped.sum()).append(",\n");
+    json.append("  \"generatedFilesSkipped\": ").append(generatedFilesSkipped.sum())
+        .append(",\n");
+    json.append("  \"files\": ").append(files.sum()).append(",\n");
+    json.append("  \"totalNanos\": ").append(totalNanos.sum()).append(",\n");
+    json.append("  \"maxNanos\": ").append(maxNanos.get()).append(",\n");
+    json.append("  \"parameterNameCache\": {\"hits\": ").append(parameterNames.hits())
+        .append(", \"misses\": ").append(parameterNames.misses())
+        .append(", \"entries\": ").append(parameterNames.size())
+        .append(", \"bytes\": ").append(parameterNames.bytes()).append("},\n");
+    json.append("  \"fileNanosHistogram\": [");
+    long[] counts = bucketCounts();
+    String separator = "\n";
+    for (int i = 0; i < BUCKETS; ++i) {
+      if (counts[i] > 0) {
+        json.append(separator).append("    {\"lessThan\": ").append(upperBound(i))
+            .append(", \"count\": ").append(counts[i]).append('}');
+        separator = ",\n";
+      }
+    }
+    return json.append(separator.equals("\n") ? "]\n" : "\n  ]\n").append("}\n").toString();
+  }
+}
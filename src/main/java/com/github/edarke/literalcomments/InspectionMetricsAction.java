@@ -0,0 +1,104 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.psi.search.GlobalSearchScope;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shows the {@link InspectionMetrics} collected since startup or the last reset, and exports them
+ * as JSON for comparing plugin versions on the same codebase.
+ */
+public class InspectionMetricsAction extends AnAction {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  private static final String TITLE = "Literal Arguments Metrics";
+  private static final int EXPORT = 0;
+  private static final int RESET = 1;
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    Project project = event.getProject();
+    InspectionMetrics metrics = InspectionMetrics.GLOBAL;
+    int choice = Messages.showDialog(project, metrics.summary() + indexedSummary(project), TITLE,
+        new String[]{"Export JSON...", "Reset", "Close"}, /* defaultOptionIndex= */ 2,
+        Messages.getInformationIcon());
+    if (choice == EXPORT) {
+      export(project, metrics.toJson(pluginVersion()));
+    } else if (choice == RESET) {
+      metrics.reset();
+    }
+  }
+
+  /**
+   * Reads project-wide counts from {@link LiteralCallSiteIndex}, which doesn't open any file.
+   */
+  private static String indexedSummary(Project project) {
+    if (project == null || DumbService.isDumb(project)) {
+      return "";
+    }
+    int[] counts;
+    try {
+      counts = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+          () -> ReadAction.compute(() -> LiteralCallSiteIndex.countCandidates(project,
+              GlobalSearchScope.projectScope(project))),
+          "Counting Literal Arguments", /* canBeCanceled= */ true, project);
+    } catch (ProcessCanceledException e) {
+      return "";
+    }
+    return String.format("%n%nUncommented literal arguments in project: %,d in %,d files, "
+        + "before excluding blacklisted methods", counts[0], counts[1]);
+  }
+
+  private static void export(Project project, String json) {
+    VirtualFileWrapper target = FileChooserFactory.getInstance()
+        .createSaveFileDialog(new FileSaverDescriptor(TITLE, "Save metrics as JSON", "json"),
+            project)
+        .save(null, "literal-arguments-metrics.json");
+    if (target == null) {
+      return;
+    }
+    try {
+      Files.write(target.getFile().toPath(), json.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      LOG.warn(e);
+      Messages.showErrorDialog(project, "Couldn't write " + target.getFile() + ": "
+          + e.getMessage(), TITLE);
+    }
+  }
+
+  private static String pluginVersion() {
+    IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId("LiteralArguments"));
+    return plugin == null ? "unknown" : plugin.getVersion();
+  }
+}
@@ -0,0 +1,181 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The inspection's options compiled into the form the visitor reads. A snapshot is immutable and
+ * only rebuilt when the options change, so visiting a call never parses a pattern.
+ */
+final class InspectionSettings {
+
+  static final String DEFAULT_METHOD_PATTERNS = String.join("\n", MethodBlacklist.DEFAULT_PATTERNS);
+  static final String DEFAULT_EXEMPT_TYPES = "String, char";
+
+  /**
+   * The names accepted in the exempt types option.
+   */
+  private static final Map<String, LiteralKind> TYPES = new LinkedHashMap<>();
+
+  static {
+    TYPES.put("int", LiteralKind.INT);
+    TYPES.put("long", LiteralKind.LONG);
+    TYPES.put("float", LiteralKind.FLOAT);
+    TYPES.put("double", LiteralKind.DOUBLE);
+    TYPES.put("boolean", LiteralKind.BOOLEAN);
+    TYPES.put("null", LiteralKind.NULL);
+    TYPES.put("char", LiteralKind.CHAR);
+    TYPES.put("String", LiteralKind.STRING);
+    TYPES.put("Optional", LiteralKind.EMPTY_OPTIONAL);
+  }
+
+  final MethodBlacklist blacklist;
+  /**
+   * Kinds of literal that are never reported. {@link LiteralKind#NONE} is always included.
+   */
+  private final Set<LiteralKind> exemptKinds;
+  /**
+   * Calls with fewer arguments than this can't produce a problem.
+   */
+  final int minimumArgumentCount;
+  /**
+   * Only calls on lines changed since this git revision are reported, or every call if null.
+   */
+  @Nullable
+  final String changedLinesBase;
+  /**
+   * Whether comments naming a parameter are checked against the name of the parameter.
+   */
+  final boolean checkParameterComments;
+  /**
+   * Options that couldn't be parsed and were skipped.
+   */
+  final List<String> errors;
+
+  private final String methodPatterns;
+  private final String exemptTypes;
+  private final int minimumParameterCount;
+
+  /**
+   * Holds the compiled default options, so they are only built once something is inspected.
+   */
+  private static final class DefaultHolder {
+
+    static final InspectionSettings DEFAULT = compile(DEFAULT_METHOD_PATTERNS,
+        DEFAULT_EXEMPT_TYPES, MethodBlacklist.DEFAULT_MINIMUM_PARAMETER_COUNT,
+        /* changedLinesBase= */ null, /* checkParameterComments= */ true);
+  }
+
+  private InspectionSettings(MethodBlacklist blacklist, Set<LiteralKind> exemptKinds,
+      List<String> errors, String methodPatterns, String exemptTypes, int minimumParameterCount,
+      @Nullable String changedLinesBase, boolean checkParameterComments) {
+    this.blacklist = blacklist;
+    this.exemptKinds = exemptKinds;
+    this.minimumArgumentCount = Math.max(1, minimumParameterCount);
+    this.changedLinesBase = changedLinesBase;
+    this.checkParameterComments = checkParameterComments;
+    this.errors = errors;
+    this.methodPatterns = methodPatterns;
+    this.exemptTypes = exemptTypes;
+    this.minimumParameterCount = minimumParameterCount;
+  }
+
+  static InspectionSettings getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Compiles the options as stored in the inspection profile. Invalid patterns and unknown types
+   * are skipped and listed in {@link #errors}, so a typo can't disable the inspection.
+   *
+   * @param methodPatterns one {@link MethodBlacklist} pattern per line
+   * @param exemptTypes comma separated type names
+   * @param changedLinesBase the revision to compare against, or null to check every line
+   */
+  static InspectionSettings compile(String methodPatterns, String exemptTypes,
+      int minimumParameterCount, @Nullable String changedLinesBase,
+      boolean checkParameterComments) {
+    List<String> errors = new ArrayList<>();
+    MethodBlacklist.Builder blacklist =
+        new MethodBlacklist.Builder().minimumParameterCount(minimumParameterCount);
+    for (String pattern : methodPatterns.split("\n")) {
+      if (pattern.trim().isEmpty()) {
+        continue;
+      }
+      try {
+        blacklist.add(pattern);
+      } catch (IllegalArgumentException e) {
+        errors.add(e.getMessage());
+      }
+    }
+
+    Set<LiteralKind> exemptKinds = EnumSet.of(LiteralKind.NONE);
+    for (String type : exemptTypes.split(",")) {
+      type = type.trim();
+      if (type.isEmpty()) {
+        continue;
+      }
+      if (TYPES.containsKey(type)) {
+        exemptKinds.add(TYPES.get(type));
+      } else {
+        errors.add("Unknown type: " + type + ". Expected one of "
+            + String.join(", ", TYPES.keySet()));
+      }
+    }
+    return new InspectionSettings(blacklist.build(), exemptKinds,
+        Collections.unmodifiableList(errors), methodPatterns, exemptTypes, minimumParameterCount,
+        changedLinesBase, checkParameterComments);
+  }
+
+  /**
+   * Returns this snapshot if it was compiled from the given options, and otherwise compiles them.
+   */
+  InspectionSettings update(String methodPatterns, String exemptTypes,
+      int minimumParameterCount, @Nullable String changedLinesBase,
+      boolean checkParameterComments) {
+    if (this.minimumParameterCount == minimumParameterCount
+        && this.checkParameterComments == checkParameterComments
+        && this.methodPatterns.equals(methodPatterns) && this.exemptTypes.equals(exemptTypes)
+        && Objects.equals(this.changedLinesBase, changedLinesBase)) {
+      return this;
+    }
+    return compile(methodPatterns, exemptTypes, minimumParameterCount, changedLinesBase,
+        checkParameterComments);
+  }
+
+  /**
+   * Returns true if these settings report no more than {@link LiteralCallSiteIndex} records, so
+   * that a file without indexed call sites can be skipped.
+   */
+  boolean isCoveredByIndex() {
+    return minimumArgumentCount >= MethodBlacklist.DEFAULT_MINIMUM_PARAMETER_COUNT
+        && exemptKinds.contains(LiteralKind.STRING) && exemptKinds.contains(LiteralKind.CHAR);
+  }
+
+  /**
+   * Returns true if arguments of this kind are reported.
+   */
+  boolean isReported(LiteralKind kind) {
+    return !exemptKinds.contains(kind);
+  }
+}
@@ -15,153 +15,267 @@ package com.github.edarke.literalcomments;
 
 import static com.github.edarke.literalcomments.Type.CONSTRUCTOR;
 import static com.github.edarke.literalcomments.Type.METHOD;
-import static java.util.stream.Collectors.toList;
-import com.google.common.collect.ImmutableSet;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.PsiCallExpression;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiExpressionList;
-import com.intellij.psi.PsiLiteralExpression;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.PsiNamedElement;
 import com.intellij.psi.PsiNewExpression;
-import com.intellij.psi.PsiParameter;
-import com.intellij.psi.PsiType;
-import com.intellij.psi.PsiTypeCastExpression;
-import com.intellij.psi.SmartPointerManager;
-import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.util.PsiTreeUtil;
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import org.jetbrains.annotations.Nullable;
 
-class LiteralArgumentElementVisitor extends JavaElementVisitor implements LiteralFix {
+class LiteralArgumentElementVisitor extends JavaElementVisitor {
 
   private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
 
-
+  private final ProblemsHolder holder;
+  private final InspectionSettings settings;
+  private final FileBudget budget;
+  private final Diagnostics diagnostics;
+  private final InspectionMetrics metrics;
   /**
-   * These classes are self-documenting and shouldn't need a comment.
+   * Reused for every call, since the visitor only looks at one argument list at a time.
    */
-  private static final ImmutableSet<String> EXEMPT_TYPES =
-      ImmutableSet.of(String.class.getName(), char.class.getName());
-
-  private static final List<Pattern> BLACKLIST = ImmutableSet.of(
-      ".*\\([^,]*\\)", // Single Arg Functions
-      "SimpleMoney\\..*",
-      "Iterables\\..*",
-      "Assert\\.\\(.\\)*",
-      ".*\\(expected, actual\\)",
-      ".*\\(begin[^,]*, end[^,]*\\)",
-      ".*\\(start[^,]*, end[^,]*\\)",
-      ".*\\(first[^,]*, last[^,]*\\)",
-      ".*\\(first[^,]*, second[^,]*\\)",
-      ".*\\(from[^,]*, to[^,]*\\)",
-      ".*\\(min[^,]*, max[^,]*\\)",
-      ".*\\(key, value\\)",
-      ".*\\(format, arg[^,]*\\)",
-      ".*\\(message, error\\)",
-      ".*set\\([^,]*, [^,]*\\)",
-      ".*setProperty\\([^,]*, [^,]*\\)",
-      ".*\\.valueOf\\([^,]*\\)",
-      ".*\\.of\\([^,]*\\)",
-      ".*compare\\([^,]*, [^,]*\\)",
-      "(Strict)?Math\\..*",
-      "Optional\\..*",
-      "Immutable.*\\.of\\(.*\\)",
-      "Arrays\\.asList\\(.*\\)").stream().map(Pattern::compile).collect(toList());
-
-  private final ProblemsHolder holder;
+  private final ArgumentScanner arguments = new ArgumentScanner();
+  /**
+   * Names to match calls against instead of resolving them, or null to resolve.
+   */
+  @Nullable
+  private final ParameterNameStore dumbModeNames;
+  /**
+   * The lines calls must be on to be checked, or null to check every call.
+   */
+  @Nullable
+  private final ChangedLines changedLines;
+  private boolean stopped = false;
+  /**
+   * Time spent in this visitor's call visits, excluding the rest of the highlighting pass.
+   */
+  private long visitNanos = 0;
 
-  LiteralArgumentElementVisitor(ProblemsHolder holder) {
+  LiteralArgumentElementVisitor(ProblemsHolder holder, InspectionSettings settings,
+      FileBudget budget, Diagnostics diagnostics, InspectionMetrics metrics,
+      @Nullable ParameterNameStore dumbModeNames, @Nullable ChangedLines changedLines) {
     this.holder = holder;
+    this.settings = settings;
+    this.budget = budget;
+    this.diagnostics = diagnostics;
+    this.metrics = metrics;
+    this.dumbModeNames = dumbModeNames;
+    this.changedLines = changedLines;
+  }
+
+  long getVisitNanos() {
+    return visitNanos;
+  }
+
+  private boolean isChanged(PsiCallExpression expression) {
+    return changedLines == null || changedLines.intersects(expression.getTextRange());
+  }
+
+  private boolean isLiteral(int argument) {
+    return settings.isReported(arguments.kind(argument));
+  }
+
+  /**
+   * Returns true if the argument's comment names a parameter and should be checked against the
+   * parameter's actual name.
+   */
+  private boolean hasParameterComment(int argument) {
+    return settings.checkParameterComments && arguments.commentedName(argument) != null;
   }
 
-  private boolean isBlackListed(PsiMethod method, PsiParameter[] parameterList) {
-    if (parameterList.length < 2) {
-      return true;
+  /**
+   * Returns the index of the first uncommented literal argument or parameter comment, or -1 if the
+   * call can't produce a problem. This only looks at syntax, so calls that pass nothing but
+   * variables are never resolved.
+   */
+  private int findFirstCandidate() {
+    if (arguments.size() < settings.minimumArgumentCount) {
+      return -1;
+    }
+    for (int i = 0; i < arguments.size(); ++i) {
+      if (arguments.isCommented(i) ? hasParameterComment(i) : isLiteral(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns false once the file's budget has run out, after reporting that once for the whole
+   * file. Throws if highlighting was cancelled, for example because the user typed.
+   */
+  private boolean withinBudget() {
+    if (stopped) {
+      return false;
+    }
+    ProgressManager.checkCanceled();
+    String exceeded = budget.exceeded(visitNanos);
+    if (exceeded != null) {
+      stopped = true;
+      metrics.filesStopped.increment();
+      holder.registerProblem(holder.getFile(), exceeded, ProblemHighlightType.WEAK_WARNING);
+      return false;
     }
+    return true;
+  }
 
-    String paramPattern =
-        Arrays.stream(parameterList).map(PsiNamedElement::getName).collect(Collectors.joining(", "
-            , "(", ")"));
+  private void getQuickFixes(PsiMethod method, PsiCallExpression expression,
+      int firstCandidate) {
+    if (method == null) {
+      return;
+    }
+    MethodDescriptor descriptor = MethodDescriptor.of(method);
+    boolean blacklisted = descriptor.isBlackListed(settings.blacklist);
+    if (diagnostics.shouldLog()) {
+      PsiClass psiClass = method.getContainingClass();
+      diagnostics.log(String.format("Method signature: %s.%s(%s); blacklisted: %s",
+          psiClass == null ? null : psiClass.getName(), method.getName(),
+          String.join(", ", descriptor.parameterNames), blacklisted));
+    }
+    if (blacklisted) {
+      metrics.blacklistHits.increment();
+      super.visitCallExpression(expression);
+      return;
+    }
+    record(method, descriptor);
+    registerProblems(descriptor, expression, firstCandidate);
+  }
 
+  /**
+   * Keeps the names of a method that isn't blacklisted for matching calls while the IDE is
+   * indexing.
+   */
+  private static void record(PsiMethod method, MethodDescriptor descriptor) {
     PsiClass psiClass = PsiTreeUtil.getParentOfType(method, PsiClass.class, false);
-    if (psiClass == null) {
-      return true;
+    String qualifiedName = psiClass == null ? null : psiClass.getQualifiedName();
+    if (qualifiedName != null) {
+      ParameterNameStore.getInstance(method.getProject())
+          .record(qualifiedName, method.isConstructor(), descriptor);
     }
-    String signature = String.format("%s.%s%s", psiClass.getName(), method.getName(), paramPattern);
-    LOG.info("Method signature: " + signature);
-    return BLACKLIST.stream().anyMatch(p -> p.matcher(signature).matches());
   }
 
-  private boolean isLiteral(PsiExpression expr) {
-    if (expr instanceof PsiLiteralExpression) {
-      PsiType type = expr.getType();
-      return type == null || EXEMPT_TYPES.stream().noneMatch(type::equalsToText);
-    } else if (expr instanceof PsiMethodCallExpression) {
-      // Optional.empty() and Optional.absent() are considered literals
-      return expr.getText().matches("((java\\.util\\.)?Optional\\.(<[a-zA-Z0-9]*>)?empty\\(\\))|(" +
-          "(com\\.google\\.common\\.base\\.)?Optional\\.(<[a-zA-Z0-9]*>)?absent\\(\\))");
-    } else if (expr instanceof PsiTypeCastExpression) {
-      PsiTypeCastExpression castExpr = (PsiTypeCastExpression) expr;
-      return isLiteral(castExpr.getOperand());
+  /**
+   * Matches the call against the names recorded in earlier sessions, for while the IDE is indexing
+   * and nothing can be resolved.
+   */
+  private void matchWithoutResolving(PsiCallExpression expression, int firstCandidate) {
+    MethodDescriptor descriptor = dumbModeNames.find(expression, settings.blacklist);
+    if (descriptor != null) {
+      registerProblems(descriptor, expression, firstCandidate);
     }
-
-    return false;
   }
 
-  private void getQuickFixes(PsiMethod method, PsiCallExpression expression) {
-    PsiParameter[] parameters = getParametersOfMethod(method).orElse(new PsiParameter[0]);
+  /**
+   * Reports the uncommented literal arguments and, from the same resolved names, the comments
+   * that name a different parameter than the one they're on. Comment names must match exactly up
+   * to case, so {@code maxValue=} doesn't pass for {@code max_value}.
+   */
+  private void registerProblems(MethodDescriptor descriptor, PsiCallExpression expression,
+      int firstCandidate) {
+    String[] parameterNames = descriptor.parameterNames;
     Type type = expression instanceof PsiNewExpression ? CONSTRUCTOR : METHOD;
     int i = 0;
 
     try {
-      if (isBlackListed(method, parameters)) {
-        super.visitCallExpression(expression);
-        return;
-      }
-
-      if (expression.getArgumentList() == null) {
+      // Every candidate is passed as varargs
+      if (descriptor.varargsIndex >= 0 && firstCandidate >= descriptor.varargsIndex) {
         return;
       }
 
-      PsiExpressionList expressions = expression.getArgumentList();
-      for (i = 0; i < expressions.getExpressions().length && i < parameters.length; ++i) {
-        PsiParameter paramDecl = parameters[i];
-        PsiExpression paramExp = expressions.getExpressions()[i];
-
-        if (!paramDecl.isVarArgs() && !isCommented(paramExp) && isLiteral(paramExp)) {
-          SmartPsiElementPointer<PsiExpression> smartParamLiteral =
-              SmartPointerManager.getInstance(expression.getProject())
-                  .createSmartPsiElementPointer(paramExp);
-          holder.registerProblem(paramExp, type.description,
-              ProblemHighlightType.WEAK_WARNING, new LiteralParamQuickFix(smartParamLiteral,
-                  paramDecl.getName(), type));
+      for (i = firstCandidate; i < arguments.size() && i < parameterNames.length; ++i) {
+        if (i == descriptor.varargsIndex || parameterNames[i] == null) {
+          continue;
         }
+        if (!arguments.isCommented(i) && isLiteral(i)) {
+          PsiExpression paramExp = arguments.expression(i);
+          if (!withinBudget()) {
+            return;
+          }
+          holder.registerProblem(paramExp, type.description, ProblemHighlightType.WEAK_WARNING,
+              LiteralParamQuickFix.of(parameterNames[i], type));
+        } else if (hasParameterComment(i)
+            && !arguments.commentedName(i).equalsIgnoreCase(parameterNames[i])) {
+          if (!withinBudget()) {
+            return;
+          }
+          holder.registerProblem(arguments.leadingComment(i),
+              String.format(ParameterCommentQuickFix.DESCRIPTION, parameterNames[i]),
+              ProblemHighlightType.WEAK_WARNING, ParameterCommentQuickFix.of(parameterNames[i]));
+        } else {
+          continue;
+        }
+        metrics.problemsRegistered.increment();
+        budget.problemRegistered();
       }
+    } catch (ProcessCanceledException e) {
+      throw e;
     } catch (Exception e) {
       LOG.error(String.format("Text: %s; Method: %s; Param Count: %s; index: %d",
-          expression.getText(), method, parameters.length, i), e);
+          expression.getText(), descriptor.methodName, parameterNames.length, i), e);
     }
   }
 
   @Override
   public void visitNewExpression(PsiNewExpression expression) {
-    PsiMethod method = expression.resolveConstructor();
-    getQuickFixes(method, expression);
+    long start = System.nanoTime();
+    try {
+      checkNewExpression(expression);
+    } finally {
+      visitNanos += System.nanoTime() - start;
+    }
   }
 
-
   @Override
   public void visitMethodCallExpression(PsiMethodCallExpression expression) {
-    PsiMethod method = (PsiMethod) expression.getMethodExpression().resolve();
-    getQuickFixes(method, expression);
+    long start = System.nanoTime();
+    try {
+      checkMethodCallExpression(expression);
+    } finally {
+      visitNanos += System.nanoTime() - start;
+    }
+  }
+
+  private void checkNewExpression(PsiNewExpression expression) {
+    PsiExpressionList argumentList = expression.getArgumentList();
+    if (argumentList == null) {
+      return;
+    }
+    if (!withinBudget() || !isChanged(expression)) {
+      return;
+    }
+    metrics.callsVisited.increment();
+    arguments.scan(argumentList);
+    int firstCandidate = findFirstCandidate();
+    if (firstCandidate >= 0 && dumbModeNames != null) {
+      matchWithoutResolving(expression, firstCandidate);
+    } else if (firstCandidate >= 0) {
+      metrics.resolves.increment();
+      getQuickFixes(expression.resolveConstructor(), expression, firstCandidate);
+    }
+  }
+
+  private void checkMethodCallExpression(PsiMethodCallExpression expression) {
+    if (!withinBudget() || !isChanged(expression)) {
+      return;
+    }
+    metrics.callsVisited.increment();
+    arguments.scan(expression.getArgumentList());
+    int firstCandidate = findFirstCandidate();
+    if (firstCandidate >= 0 && dumbModeNames != null) {
+      matchWithoutResolving(expression, firstCandidate);
+    } else if (firstCandidate >= 0) {
+      metrics.resolves.increment();
+      PsiMethod method = (PsiMethod) expression.getMethodExpression().resolve();
+      getQuickFixes(method, expression, firstCandidate);
+    }
   }
 }
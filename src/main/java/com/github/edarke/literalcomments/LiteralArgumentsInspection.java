@@ -13,15 +13,38 @@
 
 package com.github.edarke.literalcomments;
 
-import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.roots.GeneratedSourcesFilter;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.ui.DocumentAdapter;
-import java.awt.FlowLayout;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.FormBuilder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
-import javax.swing.JPanel;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.event.DocumentEvent;
 import org.jetbrains.annotations.NotNull;
 
@@ -29,39 +52,200 @@ import org.jetbrains.annotations.NotNull;
  * This inspection detects when literals are passed to a method and suggests adding a comment to
  * make code more clear.
  *
+ * <p>While the IDE is indexing, calls can't be resolved and are instead matched by syntax against
+ * the parameter names recorded in {@link ParameterNameStore}.
+ *
+ * <p>The inspection is registered in plugin.xml with its name and group, so the IDE can list it
+ * without loading this class. Options are compiled on the first inspected file.
+ *
  * @author Evan Darke
  */
-class LiteralArgumentsInspection extends AbstractBaseJavaLocalInspectionTool implements LiteralFix {
+public class LiteralArgumentsInspection extends AbstractBaseJavaLocalInspectionTool
+    implements LiteralFix, DumbAware {
 
-  @NotNull
-  public String getDisplayName() {
-    return "Literal Argument";
-  }
+  /**
+   * Logs a sample of the inspection's decisions to idea.log, for debugging false positives.
+   */
+  public boolean logDiagnostics = false;
 
-  @NotNull
-  public String getGroupDisplayName() {
-    return GroupNames.CONFUSING_GROUP_NAME;
+  /**
+   * Methods whose literal arguments aren't reported, one {@link MethodBlacklist} pattern per line.
+   */
+  public String methodPatterns = InspectionSettings.DEFAULT_METHOD_PATTERNS;
+
+  /**
+   * Comma separated literal types that are never reported.
+   */
+  public String exemptTypes = InspectionSettings.DEFAULT_EXEMPT_TYPES;
+
+  /**
+   * Methods with fewer parameters than this are never reported.
+   */
+  public int minimumParameterCount = MethodBlacklist.DEFAULT_MINIMUM_PARAMETER_COUNT;
+
+  /**
+   * Problems to report in one file before stopping, or 0 for no limit.
+   */
+  public int maxProblemsPerFile = 500;
+
+  /**
+   * Milliseconds to spend checking calls in one file before stopping, or 0 for no limit. Batch runs
+   * aren't limited, since nobody is waiting on one file there.
+   */
+  public int maxMillisPerFile = 1000;
+
+  public boolean skipGeneratedFiles = true;
+
+  /**
+   * Only reports calls on lines changed since {@link #changedLinesBase}, according to git.
+   */
+  public boolean onlyChangedLines = false;
+
+  public String changedLinesBase = "HEAD";
+
+  /**
+   * Reports comments like {@code timeout=} that name a different parameter than the one they're on.
+   */
+  public boolean checkParameterComments = true;
+
+  private final Diagnostics diagnostics =
+      new Diagnostics(/* sampleRate= */ 16, /* maxPerMinute= */ 60);
+
+  /**
+   * Null until the first file is inspected.
+   */
+  private volatile InspectionSettings settings;
+
+  static final String SHORT_NAME = "LiteralArguments";
+
+  /**
+   * The visitor built for a session, whose visit time is recorded when the session finishes.
+   */
+  private static final Key<LiteralArgumentElementVisitor> VISITOR =
+      Key.create("LiteralArguments.visitor");
+
+  /**
+   * The line protoc puts in the comment at the top of every file it generates.
+   */
+  private static final String PROTOC_MARKER =
+      "Generated by the protocol buffer compiler.  DO NOT EDIT!";
+
+  /**
+   * The ways a top level class can be annotated as generated, matched by text so nothing has to be
+   * resolved.
+   */
+  private static final Set<String> GENERATED_ANNOTATIONS = new HashSet<>(Arrays.asList(
+      "Generated", "javax.annotation.Generated", "javax.annotation.processing.Generated"));
+
+  /**
+   * Returns the compiled options. The options are public fields written by the profile's
+   * serializer and the options panel, so the snapshot is recompiled whenever they no longer match.
+   */
+  InspectionSettings getSettings() {
+    InspectionSettings current = settings;
+    String base = !onlyChangedLines ? null
+        : changedLinesBase == null || changedLinesBase.trim().isEmpty() ? "HEAD"
+        : changedLinesBase.trim();
+    InspectionSettings updated = current == null
+        ? InspectionSettings.compile(methodPatterns, exemptTypes, minimumParameterCount, base,
+            checkParameterComments)
+        : current.update(methodPatterns, exemptTypes, minimumParameterCount, base,
+            checkParameterComments);
+    if (updated != current) {
+      settings = updated;
+    }
+    return updated;
   }
 
   @NotNull
-  public String getShortName() {
-    return "LiteralArguments";
+  @Override
+  public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly,
+      @NotNull LocalInspectionToolSession session) {
+    PsiElementVisitor visitor = buildVisitor(holder, isOnTheFly);
+    if (visitor instanceof LiteralArgumentElementVisitor) {
+      session.putUserData(VISITOR, (LiteralArgumentElementVisitor) visitor);
+    }
+    return visitor;
   }
 
   @NotNull
   @Override
   public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, boolean isOnTheFly) {
-    return new LiteralArgumentElementVisitor(holder);
+    InspectionSettings settings = getSettings();
+    boolean dumb = DumbService.isDumb(holder.getProject());
+    // Batch runs cover every file, most of which have nothing to report. The editor's file may
+    // have unsaved changes the index hasn't seen yet.
+    if (!isOnTheFly && !dumb && settings.isCoveredByIndex()
+        && !LiteralCallSiteIndex.mayHaveCandidates(holder.getFile(),
+            settings.checkParameterComments)) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    if (skipGeneratedFiles && isGenerated(holder.getFile())) {
+      InspectionMetrics.GLOBAL.generatedFilesSkipped.increment();
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    ChangedLines changedLines = settings.changedLinesBase == null ? null
+        : ChangedLines.of(holder.getFile(), settings.changedLinesBase, /* wait= */ !isOnTheFly);
+    if (changedLines != null && changedLines.isEmpty()) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new LiteralArgumentElementVisitor(holder, settings,
+        new FileBudget(maxProblemsPerFile, isOnTheFly ? maxMillisPerFile : 0),
+        logDiagnostics ? diagnostics : Diagnostics.DISABLED, InspectionMetrics.GLOBAL,
+        dumb ? ParameterNameStore.getInstance(holder.getProject()) : null, changedLines);
+  }
+
+  /**
+   * Returns true if the file is in a generated sources root, has protoc's marker in a comment
+   * before its package statement, or has a top level class annotated with {@code @Generated}.
+   * Comments that merely mention generated code or editing don't count.
+   */
+  private static boolean isGenerated(PsiFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    if (virtualFile != null
+        && GeneratedSourcesFilter.isGeneratedSourceByAnyFilter(virtualFile, file.getProject())) {
+      return true;
+    }
+    if (!(file instanceof PsiJavaFile)) {
+      return false;
+    }
+    for (PsiElement child = file.getFirstChild();
+        child instanceof PsiComment || child instanceof PsiWhiteSpace;
+        child = child.getNextSibling()) {
+      if (child instanceof PsiComment && child.getText().contains(PROTOC_MARKER)) {
+        return true;
+      }
+    }
+    for (PsiClass psiClass : ((PsiJavaFile) file).getClasses()) {
+      PsiModifierList modifiers = psiClass.getModifierList();
+      if (modifiers == null) {
+        continue;
+      }
+      for (PsiAnnotation annotation : modifiers.getAnnotations()) {
+        PsiJavaCodeReferenceElement name = annotation.getNameReferenceElement();
+        if (name != null && GENERATED_ANNOTATIONS.contains(name.getText())) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
+  /**
+   * Records the time the file's visitor spent in calls. The session itself spans every inspection
+   * in the pass, so its duration says little about this one. Skipped files aren't recorded.
+   */
   @Override
-  public boolean isEnabledByDefault() {
-    return true;
+  public void inspectionFinished(@NotNull LocalInspectionToolSession session,
+      @NotNull ProblemsHolder problemsHolder) {
+    LiteralArgumentElementVisitor visitor = session.getUserData(VISITOR);
+    if (visitor != null) {
+      InspectionMetrics.GLOBAL.recordFile(visitor.getVisitNanos());
+    }
   }
 
   @Override
   public JComponent createOptionsPanel() {
-    JPanel panel = new JPanel(new FlowLayout());
     final JTextField formatOptionField = new JTextField(getCommentFormat(), /* columns= */20);
     formatOptionField.getDocument().addDocumentListener(new DocumentAdapter() {
       @Override
@@ -69,8 +253,92 @@ class LiteralArgumentsInspection extends AbstractBaseJavaLocalInspectionTool imp
         setCommentFormat(formatOptionField.getText());
       }
     });
-    panel.add(formatOptionField);
-    return panel;
+
+    final JLabel errors = new JLabel();
+    errors.setForeground(JBColor.RED);
+    Runnable validate = () -> errors.setText(getSettings().errors.isEmpty() ? ""
+        : "<html>Ignored:<br>" + String.join("<br>", getSettings().errors) + "</html>");
+    validate.run();
+
+    final JTextArea methodPatternsArea = new JTextArea(methodPatterns, /* rows= */ 10,
+        /* columns= */ 40);
+    methodPatternsArea.getDocument().addDocumentListener(new DocumentAdapter() {
+      @Override
+      public void textChanged(DocumentEvent event) {
+        methodPatterns = methodPatternsArea.getText();
+        validate.run();
+      }
+    });
+
+    final JTextField exemptTypesField = new JTextField(exemptTypes, /* columns= */ 20);
+    exemptTypesField.getDocument().addDocumentListener(new DocumentAdapter() {
+      @Override
+      public void textChanged(DocumentEvent event) {
+        exemptTypes = exemptTypesField.getText();
+        validate.run();
+      }
+    });
+
+    final JSpinner minimumParameterCountSpinner = new JSpinner(new SpinnerNumberModel(
+        minimumParameterCount, /* minimum= */ 0, /* maximum= */ 255, /* stepSize= */ 1));
+    minimumParameterCountSpinner.addChangeListener(
+        event -> minimumParameterCount = (Integer) minimumParameterCountSpinner.getValue());
+
+    final JSpinner maxProblemsSpinner = new JSpinner(new SpinnerNumberModel(maxProblemsPerFile,
+        /* minimum= */ 0, /* maximum= */ Integer.MAX_VALUE, /* stepSize= */ 100));
+    maxProblemsSpinner.addChangeListener(
+        event -> maxProblemsPerFile = (Integer) maxProblemsSpinner.getValue());
+
+    final JSpinner maxMillisSpinner = new JSpinner(new SpinnerNumberModel(maxMillisPerFile,
+        /* minimum= */ 0, /* maximum= */ Integer.MAX_VALUE, /* stepSize= */ 100));
+    maxMillisSpinner.addChangeListener(
+        event -> maxMillisPerFile = (Integer) maxMillisSpinner.getValue());
+
+    final JCheckBox skipGeneratedCheckBox =
+        new JCheckBox("Skip generated files", skipGeneratedFiles);
+    skipGeneratedCheckBox
+        .addActionListener(event -> skipGeneratedFiles = skipGeneratedCheckBox.isSelected());
+
+    final JTextField changedLinesBaseField = new JTextField(changedLinesBase, /* columns= */ 20);
+    changedLinesBaseField.setEnabled(onlyChangedLines);
+    changedLinesBaseField.getDocument().addDocumentListener(new DocumentAdapter() {
+      @Override
+      public void textChanged(DocumentEvent event) {
+        changedLinesBase = changedLinesBaseField.getText();
+      }
+    });
+    final JCheckBox onlyChangedLinesCheckBox =
+        new JCheckBox("Only check lines changed since git revision:", onlyChangedLines);
+    onlyChangedLinesCheckBox.addActionListener(event -> {
+      onlyChangedLines = onlyChangedLinesCheckBox.isSelected();
+      changedLinesBaseField.setEnabled(onlyChangedLines);
+    });
+
+    final JCheckBox parameterCommentsCheckBox = new JCheckBox(
+        "Report comments that don't match the parameter name", checkParameterComments);
+    parameterCommentsCheckBox.addActionListener(
+        event -> checkParameterComments = parameterCommentsCheckBox.isSelected());
+
+    final JCheckBox diagnosticsCheckBox =
+        new JCheckBox("Log sampled diagnostics to idea.log", logDiagnostics);
+    diagnosticsCheckBox
+        .addActionListener(event -> logDiagnostics = diagnosticsCheckBox.isSelected());
+
+    return FormBuilder.createFormBuilder()
+        .addLabeledComponent("Comment format:", formatOptionField)
+        .addLabeledComponent("Minimum parameter count:", minimumParameterCountSpinner)
+        .addLabeledComponent("Exempt types:", exemptTypesField)
+        .addLabeledComponent("Ignored methods (Class.method or Class.method(param, ...)):",
+            new JScrollPane(methodPatternsArea), /* labelOnTop= */ true)
+        .addComponent(errors)
+        .addLabeledComponent("Maximum problems per file (0 for no limit):", maxProblemsSpinner)
+        .addLabeledComponent("Maximum highlighting time per file in ms (0 for no limit):",
+            maxMillisSpinner)
+        .addComponent(parameterCommentsCheckBox)
+        .addComponent(skipGeneratedCheckBox)
+        .addLabeledComponent(onlyChangedLinesCheckBox, changedLinesBaseField)
+        .addComponent(diagnosticsCheckBox)
+        .getPanel();
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.github.edarke.literalcomments.SourceScanner.CallSite;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Indexes the uncommented literal arguments of every Java file, so that batch inspection can skip
+ * files with none without walking their PSI, and project-wide counts don't need to open any file.
+ *
+ * <p>Files are scanned with {@link SourceScanner}, so the index only knows what's visible in the
+ * text. Keys describe the call rather than the resolved method: {@code name/arity}, or
+ * {@code new name/arity} for constructors, with {@code this(...)} and {@code super(...)} keyed by
+ * the enclosing class and its superclass. Each value holds {@code (offset, argument index)} pairs
+ * sorted by offset, with offsets delta-encoded on disk. Files where some argument's comment names
+ * a parameter also get {@link #PARAMETER_COMMENTS_KEY}, since those comments are checked too.
+ *
+ * <p>Fixing and navigating still go through the inspection. The index can't tell which calls
+ * resolve to a method that isn't blacklisted, or what its parameters are called, so it only rules
+ * out files and estimates counts.
+ */
+public class LiteralCallSiteIndex extends FileBasedIndexExtension<String, int[]> {
+
+  static final ID<String, int[]> NAME = ID.create("LiteralArguments.callSites");
+
+  /**
+   * Marks a file with parameter comments, with no values. Can't collide with a call's key, which
+   * always contains '/'.
+   */
+  static final String PARAMETER_COMMENTS_KEY = "=";
+
+  @NotNull
+  @Override
+  public ID<String, int[]> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, int[], FileContent> getIndexer() {
+    return LiteralCallSiteIndex::index;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<int[]> getValueExternalizer() {
+    return OffsetsExternalizer.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return 3;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  static String key(CallSite call) {
+    return (call.constructor ? "new " : "") + call.name + '/' + call.arity;
+  }
+
+  private static Map<String, int[]> index(FileContent content) {
+    String text = content.getContentAsText().toString();
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    SourceScanner scanner = SourceScanner.scan(ByteBuffer.wrap(bytes));
+    if (scanner.callSites.isEmpty() && !scanner.hasParameterComments) {
+      return Collections.emptyMap();
+    }
+    int[] charOffsets = bytes.length == text.length() ? null : charOffsets(bytes);
+
+    Map<String, int[]> callSites = new HashMap<>();
+    for (CallSite call : scanner.callSites) {
+      int[] pairs = callSites.getOrDefault(key(call), new int[0]);
+      int size = pairs.length;
+      pairs = Arrays.copyOf(pairs, size + call.candidates.length * 2);
+      for (int c = 0; c < call.candidates.length; ++c) {
+        int offset = call.offsets[c];
+        pairs[size + c * 2] = charOffsets == null ? offset : charOffsets[offset];
+        pairs[size + c * 2 + 1] = call.candidates[c];
+      }
+      callSites.put(key(call), pairs);
+    }
+    callSites.replaceAll((key, pairs) -> sortByOffset(pairs));
+    if (scanner.hasParameterComments) {
+      callSites.put(PARAMETER_COMMENTS_KEY, new int[0]);
+    }
+    return callSites;
+  }
+
+  /**
+   * Maps each byte offset of UTF-8 text to the offset of the same character in the decoded text.
+   */
+  private static int[] charOffsets(byte[] bytes) {
+    int[] offsets = new int[bytes.length];
+    int chars = 0;
+    for (int i = 0; i < bytes.length; ++i) {
+      int b = bytes[i] & 0xff;
+      offsets[i] = chars;
+      if ((b & 0xc0) != 0x80) {
+        // Lead byte; four-byte sequences decode to a surrogate pair
+        chars += b >= 0xf0 ? 2 : 1;
+      }
+    }
+    return offsets;
+  }
+
+  private static int[] sortByOffset(int[] pairs) {
+    long[] packed = new long[pairs.length / 2];
+    for (int p = 0; p < packed.length; ++p) {
+      packed[p] = (long) pairs[p * 2] << 32 | pairs[p * 2 + 1];
+    }
+    Arrays.sort(packed);
+    for (int p = 0; p < packed.length; ++p) {
+      pairs[p * 2] = (int) (packed[p] >>> 32);
+      pairs[p * 2 + 1] = (int) packed[p];
+    }
+    return pairs;
+  }
+
+  private static final class OffsetsExternalizer implements DataExternalizer<int[]> {
+
+    static final OffsetsExternalizer INSTANCE = new OffsetsExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, int[] pairs) throws IOException {
+      DataInputOutputUtil.writeINT(out, pairs.length / 2);
+      int previous = 0;
+      for (int p = 0; p < pairs.length; p += 2) {
+        DataInputOutputUtil.writeINT(out, pairs[p] - previous);
+        DataInputOutputUtil.writeINT(out, pairs[p + 1]);
+        previous = pairs[p];
+      }
+    }
+
+    @Override
+    public int[] read(@NotNull DataInput in) throws IOException {
+      int[] pairs = new int[DataInputOutputUtil.readINT(in) * 2];
+      int previous = 0;
+      for (int p = 0; p < pairs.length; p += 2) {
+        pairs[p] = previous + DataInputOutputUtil.readINT(in);
+        pairs[p + 1] = DataInputOutputUtil.readINT(in);
+        previous = pairs[p];
+      }
+      return pairs;
+    }
+  }
+
+  /**
+   * Returns false if the index shows {@code file} has no uncommented literal arguments and, if
+   * {@code orParameterComments}, no parameter comments. Files the index doesn't cover, like those
+   * outside the project, are assumed to have some.
+   */
+  static boolean mayHaveCandidates(PsiFile file, boolean orParameterComments) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    return virtualFile == null || !file.getViewProvider().isPhysical()
+        || mayHaveCandidates(file.getProject(), virtualFile, orParameterComments);
+  }
+
+  static boolean mayHaveCandidates(Project project, VirtualFile file,
+      boolean orParameterComments) {
+    if (!ProjectFileIndex.getInstance(project).isInContent(file)) {
+      return true;
+    }
+    Map<String, int[]> data = FileBasedIndex.getInstance().getFileData(NAME, file, project);
+    return orParameterComments ? !data.isEmpty()
+        : data.size() > (data.containsKey(PARAMETER_COMMENTS_KEY) ? 1 : 0);
+  }
+
+  /**
+   * Counts the indexed literal arguments in {@code scope}, and the files containing them. Calls
+   * to blacklisted methods are included, since telling them apart needs resolution.
+   */
+  static int[] countCandidates(Project project, GlobalSearchScope scope) {
+    FileBasedIndex index = FileBasedIndex.getInstance();
+    Set<VirtualFile> files = new HashSet<>();
+    int[] arguments = {0};
+    index.processAllKeys(NAME, key -> {
+      if (key.equals(PARAMETER_COMMENTS_KEY)) {
+        return true;
+      }
+      index.processValues(NAME, key, null, (file, pairs) -> {
+        files.add(file);
+        arguments[0] += pairs.length / 2;
+        return true;
+      }, scope);
+      return true;
+    }, project);
+    return new int[]{arguments[0], files.size()};
+  }
+}
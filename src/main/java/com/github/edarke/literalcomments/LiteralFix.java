@@ -16,15 +16,15 @@ package com.github.edarke.literalcomments;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.JavaTokenType;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiJavaToken;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiParameter;
-import com.intellij.psi.codeStyle.CodeStyleManager;
-import java.util.Optional;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.PsiWhiteSpace;
+import org.jetbrains.annotations.Nullable;
 
 interface LiteralFix {
 
@@ -46,13 +46,37 @@ interface LiteralFix {
     return PropertiesComponent.getInstance().getValue(COMMENT_FORMAT_KEY, DEFAULT_COMMENT_FORMAT);
   }
 
+  /**
+   * Inserts the comment with a single space before the argument, keeping the rest of the argument
+   * list formatted the way the user wrote it.
+   */
   default void addComment(Project project, String argumentName, PsiExpression literalArgument) {
+    addComment(project, argumentName, literalArgument,
+        ArgumentScanner.trailingComment(literalArgument));
+  }
+
+  /**
+   * Same as {@link #addComment(Project, String, PsiExpression)}, for callers that already scanned
+   * the argument list and know the comment following the argument.
+   */
+  default void addComment(Project project, String argumentName, PsiExpression literalArgument,
+      @Nullable PsiComment trailingComment) {
     PsiElementFactory factory = JavaPsiFacade.getInstance(project).getElementFactory();
-    String commentContent = String.format(getCommentFormat(), argumentName);
-    PsiComment comment = factory.createCommentFromText(commentContent, null);
-    literalArgument.getParent().addBefore(comment, literalArgument);
-    deletePostComment(literalArgument, commentContent);
-    CodeStyleManager.getInstance(project).reformat(literalArgument.getParent());
+    PsiParserFacade parserFacade = project.getService(PsiParserFacade.class);
+    String commentContent = CommentTemplate.current().format(argumentName);
+    PsiElement parent = literalArgument.getParent();
+
+    PsiElement comment =
+        parent.addBefore(factory.createCommentFromText(commentContent, null), literalArgument);
+    if (!(comment.getNextSibling() instanceof PsiWhiteSpace)) {
+      parent.addAfter(parserFacade.createWhiteSpaceFromText(" "), comment);
+    }
+    PsiElement previous = comment.getPrevSibling();
+    if (previous instanceof PsiJavaToken
+        && ((PsiJavaToken) previous).getTokenType() == JavaTokenType.COMMA) {
+      parent.addBefore(parserFacade.createWhiteSpaceFromText(" "), comment);
+    }
+    deletePostComment(trailingComment, commentContent);
   }
 
   default void setCommentFormat(String format) {
@@ -60,32 +84,23 @@ interface LiteralFix {
     String testFormat = String.format(format, "test_param"); // assert valid
     if (testFormat.startsWith("/*") && testFormat.endsWith("*/")) {
       PropertiesComponent.getInstance().setValue(COMMENT_FORMAT_KEY, format);
+      CommentTemplate.update(format);
     }
   }
 
-  default Optional<PsiParameter[]> getParametersOfMethod(PsiMethod method) {
-    if (method == null) {
-      return Optional.empty();
-    }
-    try {
-      return Optional.of(method.getParameterList().getParameters());
-    } catch (NullPointerException npe) {
-      return Optional.empty();
+  /**
+   * Deletes the comment that followed the argument if it names the same parameter, so the new
+   * comment doesn't duplicate it.
+   */
+  default void deletePostComment(@Nullable PsiComment trailingComment, String comment) {
+    if (trailingComment == null || !trailingComment.isValid()
+        || !CommentTemplate.isSameComment(trailingComment.getText(), comment)) {
+      return;
     }
-  }
-
-  default void deletePostComment(PsiElement element, String comment) {
-    comment = comment.replaceAll("[ =_]", "");
-
-    PsiElement sibling = element;
-    while ((sibling = sibling.getNextSibling()) != null && !(sibling instanceof PsiJavaToken)) {
-      if (sibling instanceof PsiComment) {
-        PsiComment existingComment = (PsiComment) sibling;
-        if (existingComment.getText().replaceAll("[ =]", "").equalsIgnoreCase(comment)) {
-          existingComment.delete();
-          return;
-        }
-      }
+    PsiElement previous = trailingComment.getPrevSibling();
+    if (previous instanceof PsiWhiteSpace) {
+      previous.delete();
     }
+    trailingComment.delete();
   }
 }
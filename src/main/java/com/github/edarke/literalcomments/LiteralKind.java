@@ -0,0 +1,120 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiJavaToken;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiTypeCastExpression;
+import com.intellij.psi.tree.IElementType;
+
+/**
+ * What kind of literal an argument is. Casts have the kind of their operand, so
+ * {@code (byte) 0} is an {@link #INT}.
+ */
+enum LiteralKind {
+  /**
+   * Not a literal.
+   */
+  NONE,
+  INT,
+  LONG,
+  FLOAT,
+  DOUBLE,
+  BOOLEAN,
+  NULL,
+  CHAR,
+  STRING,
+  /**
+   * {@code Optional.empty()} or Guava's {@code Optional.absent()}.
+   */
+  EMPTY_OPTIONAL;
+
+  static LiteralKind of(PsiExpression expression) {
+    while (expression instanceof PsiTypeCastExpression) {
+      expression = ((PsiTypeCastExpression) expression).getOperand();
+    }
+    if (expression instanceof PsiLiteralExpression) {
+      PsiElement token = expression.getFirstChild();
+      return token instanceof PsiJavaToken ? of(((PsiJavaToken) token).getTokenType()) : NONE;
+    } else if (expression instanceof PsiMethodCallExpression) {
+      return isEmptyOptional((PsiMethodCallExpression) expression) ? EMPTY_OPTIONAL : NONE;
+    }
+    return NONE;
+  }
+
+  private static LiteralKind of(IElementType tokenType) {
+    if (tokenType == JavaTokenType.INTEGER_LITERAL) {
+      return INT;
+    } else if (tokenType == JavaTokenType.LONG_LITERAL) {
+      return LONG;
+    } else if (tokenType == JavaTokenType.FLOAT_LITERAL) {
+      return FLOAT;
+    } else if (tokenType == JavaTokenType.DOUBLE_LITERAL) {
+      return DOUBLE;
+    } else if (tokenType == JavaTokenType.TRUE_KEYWORD
+        || tokenType == JavaTokenType.FALSE_KEYWORD) {
+      return BOOLEAN;
+    } else if (tokenType == JavaTokenType.NULL_KEYWORD) {
+      return NULL;
+    } else if (tokenType == JavaTokenType.CHARACTER_LITERAL) {
+      return CHAR;
+    } else if (tokenType == JavaTokenType.STRING_LITERAL
+        || tokenType == JavaTokenType.TEXT_BLOCK_LITERAL) {
+      return STRING;
+    }
+    return NONE;
+  }
+
+  /**
+   * The qualifier is only resolved once the method name, argument count and qualifier name all
+   * match.
+   */
+  private static boolean isEmptyOptional(PsiMethodCallExpression call) {
+    PsiReferenceExpression methodExpression = call.getMethodExpression();
+    String methodName = methodExpression.getReferenceName();
+    String optionalClass;
+    if ("empty".equals(methodName)) {
+      optionalClass = "java.util.Optional";
+    } else if ("absent".equals(methodName)) {
+      optionalClass = "com.google.common.base.Optional";
+    } else {
+      return false;
+    }
+
+    if (!call.getArgumentList().isEmpty()) {
+      return false;
+    }
+    PsiExpression qualifier = methodExpression.getQualifierExpression();
+    if (!(qualifier instanceof PsiReferenceExpression)
+        || !"Optional".equals(((PsiReferenceExpression) qualifier).getReferenceName())) {
+      return false;
+    }
+
+    PsiElement target = DumbService.isDumb(call.getProject()) ? null
+        : ((PsiReferenceExpression) qualifier).resolve();
+    if (target instanceof PsiClass) {
+      return optionalClass.equals(((PsiClass) target).getQualifiedName());
+    }
+    // Fall back to the qualifier's text when the library isn't on the classpath or while indexing
+    String qualifierText = qualifier.getText();
+    return qualifierText.equals("Optional") || qualifierText.equals(optionalClass);
+  }
+}
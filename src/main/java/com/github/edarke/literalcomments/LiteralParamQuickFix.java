@@ -13,43 +13,178 @@
 
 package com.github.edarke.literalcomments;
 
+import com.intellij.codeInspection.BatchQuickFix;
+import com.intellij.codeInspection.CommonProblemDescriptor;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.QuickFix;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiExpression;
-import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.PsiFile;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-class LiteralParamQuickFix implements LocalQuickFix, LiteralFix {
+/**
+ * Comments the argument a problem was registered on. The fix doesn't hold on to the argument, it
+ * takes it from the {@link ProblemDescriptor} when applied, so one instance is shared by every
+ * problem with the same parameter name and {@link Type}.
+ */
+class LiteralParamQuickFix implements LocalQuickFix, BatchQuickFix, LiteralFix, DumbAware {
 
   private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
 
-  private final SmartPsiElementPointer<PsiExpression> paramLiteral;
+  /**
+   * Past this many names per type, new fixes are no longer shared, so a project with unusual
+   * parameter names can't grow the table without bound.
+   */
+  private static final int MAX_SHARED_NAMES = 4096;
+
+  private static final Map<Type, Map<String, LiteralParamQuickFix>> SHARED =
+      new EnumMap<>(Type.class);
+
+  static {
+    for (Type type : Type.values()) {
+      SHARED.put(type, new ConcurrentHashMap<>());
+    }
+  }
+
   private final String paramName;
-  private final Type type;
+  private final String name;
 
-  LiteralParamQuickFix(SmartPsiElementPointer<PsiExpression> paramLiteral, String paramName,
-      Type type) {
-    this.paramLiteral = paramLiteral;
+  private LiteralParamQuickFix(String paramName, Type type) {
     this.paramName = paramName;
-    this.type = type;
+    this.name = String.format("Add comment for %s parameter", type.toString().toLowerCase());
+  }
+
+  static LiteralParamQuickFix of(String paramName, Type type) {
+    Map<String, LiteralParamQuickFix> fixes = SHARED.get(type);
+    LiteralParamQuickFix fix = fixes.get(paramName);
+    if (fix != null) {
+      return fix;
+    }
+    fix = new LiteralParamQuickFix(paramName, type);
+    if (fixes.size() >= MAX_SHARED_NAMES) {
+      return fix;
+    }
+    LiteralParamQuickFix existing = fixes.putIfAbsent(paramName, fix);
+    return existing != null ? existing : fix;
+  }
+
+  String getParamName() {
+    return paramName;
   }
 
   @NotNull
   public String getName() {
-    return String.format("Add comment for %s parameter", type.toString().toLowerCase());
+    return name;
+  }
+
+  @Override
+  public boolean startInWriteAction() {
+    // Batch application runs under a progress indicator and opens its own write commands
+    return false;
   }
 
   @Override
   public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-    try {
-      addComment(project, this.paramName, paramLiteral.getElement());
-    } catch (Exception e) {
-      LOG.error(e);
+    PsiElement element = descriptor.getPsiElement();
+    if (!(element instanceof PsiExpression)) {
+      return;
     }
+    WriteCommandAction.runWriteCommandAction(project, () -> {
+      try {
+        if (element.isValid() && !isCommented((PsiExpression) element)) {
+          addComment(project, paramName, (PsiExpression) element);
+        }
+      } catch (Exception e) {
+        LOG.error(e);
+      }
+    });
+  }
+
+  /**
+   * Inserts every comment in a file with one write command, so that fixing a whole project doesn't
+   * open a command per comment.
+   */
+  @Override
+  public void applyFix(@NotNull Project project, CommonProblemDescriptor @NotNull [] descriptors,
+      @NotNull List<PsiElement> psiElementsToIgnore, @Nullable Runnable refreshViews) {
+    Set<PsiElement> ignored = new HashSet<>(psiElementsToIgnore);
+    Map<PsiFile, List<ProblemDescriptor>> problemsByFile = new LinkedHashMap<>();
+    for (CommonProblemDescriptor descriptor : descriptors) {
+      if (descriptor instanceof ProblemDescriptor) {
+        PsiElement element = ((ProblemDescriptor) descriptor).getPsiElement();
+        if (element != null && !ignored.contains(element)) {
+          problemsByFile.computeIfAbsent(element.getContainingFile(), file -> new ArrayList<>())
+              .add((ProblemDescriptor) descriptor);
+        }
+      }
+    }
+
+    ProgressManager.getInstance().run(new Task.Modal(project, getFamilyName(), true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        int done = 0;
+        for (Map.Entry<PsiFile, List<ProblemDescriptor>> entry : problemsByFile.entrySet()) {
+          indicator.checkCanceled();
+          indicator.setFraction((double) done++ / problemsByFile.size());
+          ApplicationManager.getApplication().invokeAndWait(() ->
+              WriteCommandAction.runWriteCommandAction(project, getFamilyName(), null,
+                  () -> addComments(project, entry.getKey(), entry.getValue()), entry.getKey()));
+        }
+      }
+
+      @Override
+      public void onFinished() {
+        if (refreshViews != null) {
+          refreshViews.run();
+        }
+      }
+    });
   }
 
+  private void addComments(Project project, PsiFile file, List<ProblemDescriptor> problems) {
+    if (!file.isValid()) {
+      return;
+    }
+    for (ProblemDescriptor problem : problems) {
+      PsiElement element = problem.getPsiElement();
+      LiteralParamQuickFix fix = findFix(problem);
+      if (element instanceof PsiExpression && element.isValid() && fix != null
+          && !isCommented((PsiExpression) element)) {
+        addComment(project, fix.paramName, (PsiExpression) element);
+      }
+    }
+  }
+
+  @Nullable
+  static LiteralParamQuickFix findFix(ProblemDescriptor problem) {
+    QuickFix[] fixes = problem.getFixes();
+    if (fixes != null) {
+      for (QuickFix fix : fixes) {
+        if (fix instanceof LiteralParamQuickFix) {
+          return (LiteralParamQuickFix) fix;
+        }
+      }
+    }
+    return null;
+  }
 
   @NotNull
   public String getFamilyName() {
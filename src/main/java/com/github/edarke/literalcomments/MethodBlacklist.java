@@ -0,0 +1,369 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Methods that don't need comments for their literal arguments.
+ *
+ * <p>Each rule is a glob on the class name, the method name and optionally each parameter name. A
+ * glob is either {@code *}, an exact name, a prefix ({@code begin*}) or a suffix ({@code *set}).
+ * Rules are compiled into lookup tables keyed on the exact class or method name, plus a trie on the
+ * first parameter name, so a call that matches nothing is rejected without allocating.
+ *
+ * <p>As text, a rule is written {@code Class.method} to match any parameters, or
+ * {@code Class.method(first, second)} to match exactly those parameter names.
+ */
+final class MethodBlacklist {
+
+  /**
+   * Common methods whose arguments are clear from context, mostly the same ones IntelliJ's
+   * parameter hints skip.
+   */
+  static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+      "SimpleMoney.*",
+      "Iterables.*",
+      "*.*(expected, actual)",
+      "*.*(begin*, end*)",
+      "*.*(start*, end*)",
+      "*.*(first*, last*)",
+      "*.*(first*, second*)",
+      "*.*(from*, to*)",
+      "*.*(min*, max*)",
+      "*.*(key, value)",
+      "*.*(format, arg*)",
+      "*.*(message, error)",
+      "*.*set(*, *)",
+      "*.*setProperty(*, *)",
+      "*.*compare(*, *)",
+      "Math.*",
+      "StrictMath.*",
+      "Optional.*",
+      "Immutable*.of",
+      "Arrays.asList"));
+
+  static final int DEFAULT_MINIMUM_PARAMETER_COUNT = 2; // Single Arg Functions
+
+  /**
+   * Holds the compiled default rules, so they are only built once something is checked.
+   */
+  private static final class DefaultHolder {
+
+    static final MethodBlacklist DEFAULT = new MethodBlacklist.Builder()
+        .minimumParameterCount(DEFAULT_MINIMUM_PARAMETER_COUNT)
+        .addAll(DEFAULT_PATTERNS)
+        .build();
+  }
+
+  private final int minimumParameterCount;
+  private final Map<String, Rule[]> byClass;
+  private final Map<String, Rule[]> byMethod;
+  private final Rule[] others;
+  private final ParameterTrie byFirstParameter;
+
+  private MethodBlacklist(Builder builder) {
+    this.minimumParameterCount = builder.minimumParameterCount;
+    this.byClass = freeze(builder.byClass);
+    this.byMethod = freeze(builder.byMethod);
+    this.others = builder.others.toArray(new Rule[0]);
+    this.byFirstParameter = builder.byFirstParameter;
+  }
+
+  static MethodBlacklist getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Returns true if literal arguments passed to {@code className.methodName(parameterNames)} should
+   * not be reported. {@code className} is null for anonymous classes.
+   */
+  boolean matches(String className, String methodName, String[] parameterNames) {
+    if (parameterNames.length < minimumParameterCount) {
+      return true;
+    }
+    if (className != null && anyMatch(byClass.get(className), className, methodName,
+        parameterNames)) {
+      return true;
+    }
+    if (anyMatch(byMethod.get(methodName), className, methodName, parameterNames)
+        || anyMatch(others, className, methodName, parameterNames)) {
+      return true;
+    }
+    return parameterNames.length > 0
+        && byFirstParameter.matches(className, methodName, parameterNames);
+  }
+
+  private static boolean anyMatch(Rule[] rules, String className, String methodName,
+      String[] parameterNames) {
+    if (rules == null) {
+      return false;
+    }
+    for (Rule rule : rules) {
+      if (rule.matches(className, methodName, parameterNames)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Map<String, Rule[]> freeze(Map<String, List<Rule>> rules) {
+    Map<String, Rule[]> frozen = new HashMap<>();
+    rules.forEach((key, value) -> frozen.put(key, value.toArray(new Rule[0])));
+    return frozen;
+  }
+
+  static final class Builder {
+
+    private int minimumParameterCount = 0;
+    private final Map<String, List<Rule>> byClass = new HashMap<>();
+    private final Map<String, List<Rule>> byMethod = new HashMap<>();
+    private final List<Rule> others = new ArrayList<>();
+    private final ParameterTrie byFirstParameter = new ParameterTrie();
+
+    /**
+     * Methods with fewer parameters than this are always blacklisted.
+     */
+    Builder minimumParameterCount(int count) {
+      this.minimumParameterCount = count;
+      return this;
+    }
+
+    /**
+     * Adds a rule matching any parameter list.
+     */
+    Builder add(String classGlob, String methodGlob) {
+      return add(new Rule(Glob.of(classGlob), Glob.of(methodGlob), null));
+    }
+
+    /**
+     * Adds a rule matching parameter lists of exactly {@code parameterGlobs.length} names.
+     */
+    Builder add(String classGlob, String methodGlob, String... parameterGlobs) {
+      Glob[] parameters = Arrays.stream(parameterGlobs).map(Glob::of).toArray(Glob[]::new);
+      return add(new Rule(Glob.of(classGlob), Glob.of(methodGlob), parameters));
+    }
+
+    /**
+     * Adds a rule written as {@code Class.method} or {@code Class.method(parameter, ...)}.
+     *
+     * @throws IllegalArgumentException if the pattern is malformed
+     */
+    Builder add(String pattern) {
+      String signature = pattern.trim();
+      String[] parameterGlobs = null;
+      int open = signature.indexOf('(');
+      if (open >= 0) {
+        if (!signature.endsWith(")")) {
+          throw new IllegalArgumentException("Missing ')' in " + pattern);
+        }
+        String parameters = signature.substring(open + 1, signature.length() - 1).trim();
+        parameterGlobs = parameters.isEmpty() ? new String[0] : parameters.split("\\s*,\\s*");
+        signature = signature.substring(0, open).trim();
+      }
+      int dot = signature.lastIndexOf('.');
+      if (dot <= 0 || dot == signature.length() - 1) {
+        throw new IllegalArgumentException("Expected Class.method in " + pattern);
+      }
+      String classGlob = signature.substring(0, dot);
+      String methodGlob = signature.substring(dot + 1);
+      return parameterGlobs == null ? add(classGlob, methodGlob)
+          : add(classGlob, methodGlob, parameterGlobs);
+    }
+
+    Builder addAll(Iterable<String> patterns) {
+      patterns.forEach(this::add);
+      return this;
+    }
+
+    private Builder add(Rule rule) {
+      if (rule.classGlob.kind == Glob.Kind.EXACT) {
+        byClass.computeIfAbsent(rule.classGlob.text, k -> new ArrayList<>()).add(rule);
+      } else if (rule.methodGlob.kind == Glob.Kind.EXACT) {
+        byMethod.computeIfAbsent(rule.methodGlob.text, k -> new ArrayList<>()).add(rule);
+      } else if (rule.classGlob.kind == Glob.Kind.ANY && rule.methodGlob.kind == Glob.Kind.ANY
+          && rule.parameterGlobs != null && rule.parameterGlobs.length > 0
+          && rule.parameterGlobs[0].kind != Glob.Kind.SUFFIX) {
+        byFirstParameter.add(rule);
+      } else {
+        others.add(rule);
+      }
+      return this;
+    }
+
+    MethodBlacklist build() {
+      return new MethodBlacklist(this);
+    }
+  }
+
+  private static final class Rule {
+
+    final Glob classGlob;
+    final Glob methodGlob;
+    final Glob[] parameterGlobs;
+
+    Rule(Glob classGlob, Glob methodGlob, Glob[] parameterGlobs) {
+      this.classGlob = classGlob;
+      this.methodGlob = methodGlob;
+      this.parameterGlobs = parameterGlobs;
+    }
+
+    boolean matches(String className, String methodName, String[] parameterNames) {
+      return classGlob.matches(className) && methodGlob.matches(methodName)
+          && matchesParameters(parameterNames, 0);
+    }
+
+    boolean matchesParameters(String[] parameterNames, int from) {
+      if (parameterGlobs == null) {
+        return true;
+      }
+      if (parameterGlobs.length != parameterNames.length) {
+        return false;
+      }
+      for (int i = from; i < parameterGlobs.length; ++i) {
+        if (!parameterGlobs[i].matches(parameterNames[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Glob {
+
+    enum Kind {ANY, EXACT, PREFIX, SUFFIX}
+
+    final Kind kind;
+    final String text;
+
+    private Glob(Kind kind, String text) {
+      this.kind = kind;
+      this.text = text;
+    }
+
+    static Glob of(String glob) {
+      int star = glob.indexOf('*', 1);
+      if (glob.isEmpty() || (star >= 0 && star < glob.length() - 1)
+          || (glob.length() > 1 && glob.startsWith("*") && glob.endsWith("*"))) {
+        throw new IllegalArgumentException("Unsupported pattern: " + glob);
+      }
+      if (glob.equals("*")) {
+        return new Glob(Kind.ANY, "");
+      } else if (glob.endsWith("*")) {
+        return new Glob(Kind.PREFIX, glob.substring(0, glob.length() - 1));
+      } else if (glob.startsWith("*")) {
+        return new Glob(Kind.SUFFIX, glob.substring(1));
+      }
+      return new Glob(Kind.EXACT, glob);
+    }
+
+    boolean matches(String name) {
+      switch (kind) {
+        case ANY:
+          return true;
+        case EXACT:
+          return text.equals(name);
+        case PREFIX:
+          return name != null && name.startsWith(text);
+        default:
+          return name != null && name.endsWith(text);
+      }
+    }
+  }
+
+  /**
+   * Rules that only constrain parameter names, keyed by their first parameter glob. Walking the
+   * first parameter name once visits every rule whose first glob could match it.
+   */
+  private static final class ParameterTrie {
+
+    private char[] keys = new char[0];
+    private ParameterTrie[] children = new ParameterTrie[0];
+    private Rule[] exact = new Rule[0];
+    private Rule[] prefix = new Rule[0];
+
+    void add(Rule rule) {
+      Glob first = rule.parameterGlobs[0];
+      ParameterTrie node = this;
+      for (int i = 0; i < first.text.length(); ++i) {
+        node = node.childFor(first.text.charAt(i));
+      }
+      if (first.kind == Glob.Kind.EXACT) {
+        node.exact = append(node.exact, rule);
+      } else {
+        node.prefix = append(node.prefix, rule);
+      }
+    }
+
+    boolean matches(String className, String methodName, String[] parameterNames) {
+      String first = parameterNames[0];
+      if (first == null) {
+        return false;
+      }
+      ParameterTrie node = this;
+      for (int i = 0; ; ++i) {
+        if (anyMatch(node.prefix, parameterNames)) {
+          return true;
+        }
+        if (i == first.length()) {
+          return anyMatch(node.exact, parameterNames);
+        }
+        node = node.find(first.charAt(i));
+        if (node == null) {
+          return false;
+        }
+      }
+    }
+
+    private static boolean anyMatch(Rule[] rules, String[] parameterNames) {
+      for (Rule rule : rules) {
+        if (rule.matchesParameters(parameterNames, 1)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private ParameterTrie find(char key) {
+      for (int i = 0; i < keys.length; ++i) {
+        if (keys[i] == key) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    private ParameterTrie childFor(char key) {
+      ParameterTrie child = find(key);
+      if (child == null) {
+        child = new ParameterTrie();
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        keys[keys.length - 1] = key;
+        children = append(children, child);
+      }
+      return child;
+    }
+
+    private static <T> T[] append(T[] array, T element) {
+      T[] copy = Arrays.copyOf(array, array.length + 1);
+      copy[array.length] = element;
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.impl.compiled.ClsParameterImpl;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+
+/**
+ * Everything the inspection needs to know about a call target. Descriptors are cached in the
+ * method's user data until its file changes, so they are computed once per method rather than once
+ * per call site and are released together with the PSI.
+ */
+final class MethodDescriptor {
+
+  /**
+   * False for methods outside any class, which are always blacklisted.
+   */
+  final boolean inClass;
+  /**
+   * Simple name of the class declaring the method, or null for anonymous classes.
+   */
+  final String className;
+  final String methodName;
+  /**
+   * Null where the name isn't known, so arguments in that position are never reported.
+   */
+  final String[] parameterNames;
+  /**
+   * Index of the varargs parameter, or -1 if the method has none.
+   */
+  final int varargsIndex;
+  /**
+   * The last blacklist this method was checked against. The blacklist only changes with the
+   * inspection's settings, so this almost always holds.
+   */
+  private volatile Verdict verdict;
+
+  private static final class Verdict {
+
+    final MethodBlacklist blacklist;
+    final boolean blacklisted;
+
+    Verdict(MethodBlacklist blacklist, boolean blacklisted) {
+      this.blacklist = blacklist;
+      this.blacklisted = blacklisted;
+    }
+  }
+
+  private MethodDescriptor(boolean inClass, String className, String methodName,
+      String[] parameterNames, int varargsIndex) {
+    this.inClass = inClass;
+    this.className = className;
+    this.methodName = methodName;
+    this.parameterNames = parameterNames;
+    this.varargsIndex = varargsIndex;
+  }
+
+  static MethodDescriptor of(PsiMethod method) {
+    return CachedValuesManager.getCachedValue(method, () -> {
+      PsiFile file = method.getContainingFile();
+      return Result.create(compute(method),
+          file != null ? file : PsiModificationTracker.MODIFICATION_COUNT);
+    });
+  }
+
+  /**
+   * Returns a descriptor for a method of a named class that wasn't resolved, such as one read
+   * from {@link ParameterNameStore}.
+   */
+  static MethodDescriptor of(String className, String methodName, String[] parameterNames,
+      int varargsIndex) {
+    return new MethodDescriptor(/* inClass= */ true, className, methodName, parameterNames,
+        varargsIndex);
+  }
+
+  private static MethodDescriptor compute(PsiMethod method) {
+    String[] parameterNames = parameterNames(method);
+    // Only the last parameter can be varargs
+    int varargsIndex = method.isVarArgs() ? parameterNames.length - 1 : -1;
+    PsiClass psiClass = PsiTreeUtil.getParentOfType(method, PsiClass.class, false);
+    return new MethodDescriptor(psiClass != null, psiClass == null ? null : psiClass.getName(),
+        method.getName(), parameterNames, varargsIndex);
+  }
+
+  /**
+   * Returns the method's parameter names. Names of compiled methods are shared through
+   * {@link ParameterNameCache}, since they outlive the PSI they were read from.
+   */
+  static String[] parameterNames(PsiMethod method) {
+    PsiParameter[] parameters = method.getParameterList().getParameters();
+    if (!(method instanceof PsiCompiledElement)) {
+      return names(parameters);
+    }
+    String signature = signature(method, parameters);
+    return signature == null ? names(parameters)
+        : ParameterNameCache.GLOBAL.get(signature, () -> names(parameters));
+  }
+
+  /**
+   * Returns the parameters' names, with null for names the decompiler made up, like {@code s} or
+   * {@code i}, because the class file has no debug information.
+   */
+  private static String[] names(PsiParameter[] parameters) {
+    String[] names = new String[parameters.length];
+    for (int i = 0; i < parameters.length; ++i) {
+      boolean autoGenerated = parameters[i] instanceof ClsParameterImpl
+          && ((ClsParameterImpl) parameters[i]).isAutoGeneratedName();
+      names[i] = autoGenerated ? null : parameters[i].getName();
+    }
+    return names;
+  }
+
+  /**
+   * The fully qualified signature, prefixed with the class file's path so that two versions of a
+   * library don't share entries.
+   */
+  private static String signature(PsiMethod method, PsiParameter[] parameters) {
+    PsiClass psiClass = method.getContainingClass();
+    VirtualFile file = PsiUtilCore.getVirtualFile(method);
+    if (psiClass == null || psiClass.getQualifiedName() == null || file == null) {
+      return null;
+    }
+    StringBuilder signature = new StringBuilder(file.getPath()).append('#')
+        .append(psiClass.getQualifiedName()).append('.').append(method.getName()).append('(');
+    for (int i = 0; i < parameters.length; ++i) {
+      signature.append(i == 0 ? "" : ",").append(parameters[i].getType().getCanonicalText());
+    }
+    return signature.append(')').toString();
+  }
+
+  boolean isBlackListed(MethodBlacklist blacklist) {
+    Verdict verdict = this.verdict;
+    if (verdict == null || verdict.blacklist != blacklist) {
+      verdict = new Verdict(blacklist, !inClass
+          || blacklist.matches(className, methodName, parameterNames));
+      this.verdict = verdict;
+    }
+    return verdict.blacklisted;
+  }
+}
@@ -13,32 +13,113 @@
 
 package com.github.edarke.literalcomments;
 
+import com.intellij.codeInsight.hint.HintManager;
 import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
+import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiCallExpression;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiExpressionList;
-import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiIdentifier;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiNewExpression;
-import com.intellij.psi.PsiParameter;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public class OptionalRefactor extends PsiElementBaseIntentionAction implements LiteralFix {
+/**
+ * Adds a comment to the argument under the caret, to every reported literal argument of a call
+ * when the caret is on the call's name, or to those of every call in the selection. With several
+ * carets, each one counts.
+ *
+ * <p>{@link #isAvailable} runs on every caret move, so it only looks at the syntax around the
+ * primary caret. The calls are resolved when the intention is invoked, each once, by
+ * {@link CallCommenter} in the intention's write action.
+ */
+public class OptionalRefactor extends PsiElementBaseIntentionAction {
 
-  @NotNull
-  public String getText() {
-    return "Add inline comment for parameter";
+  private static final String ARGUMENT_TEXT = "Add inline comment for parameter";
+  private static final String CALL_TEXT = "Add inline comments for literal arguments of call";
+  private static final String SELECTION_TEXT =
+      "Add inline comments for literal arguments in selection";
+
+  private static final String UNRESOLVED_HINT = "Cannot resolve the called method";
+  private static final String ARGUMENT_HINT = "No parameter for this argument";
+  private static final String CALL_HINT = "No literal argument of this call needs a comment";
+  private static final String SELECTION_HINT =
+      "No literal argument in the selection needs a comment";
+
+  /**
+   * Where the arguments of a call are, cached per argument list until its file changes.
+   */
+  private static final class ArgumentLayout {
+
+    final int[] starts;
+    final int[] ends;
+    final boolean[] commented;
+    final LiteralKind[] kinds;
+
+    private ArgumentLayout(ArgumentScanner scanner) {
+      starts = new int[scanner.size()];
+      ends = new int[scanner.size()];
+      commented = new boolean[scanner.size()];
+      kinds = new LiteralKind[scanner.size()];
+      for (int i = 0; i < scanner.size(); ++i) {
+        TextRange range = scanner.expression(i).getTextRange();
+        starts[i] = range.getStartOffset();
+        ends[i] = range.getEndOffset();
+        commented[i] = scanner.isCommented(i);
+        kinds[i] = scanner.kind(i);
+      }
+    }
+
+    static ArgumentLayout of(PsiExpressionList arguments) {
+      return CachedValuesManager.getCachedValue(arguments, () -> Result
+          .create(new ArgumentLayout(new ArgumentScanner().scan(arguments)), arguments));
+    }
+
+    /**
+     * Returns the index of the argument containing {@code offset}, or -1.
+     */
+    int indexAt(int offset) {
+      int index = Arrays.binarySearch(starts, offset);
+      if (index < 0) {
+        index = -index - 2;
+      }
+      return index >= 0 && offset < ends[index] ? index : -1;
+    }
+
+    /**
+     * Returns true if an uncommented argument is of a kind {@code settings} reports, in a call
+     * with enough arguments to be reported.
+     */
+    boolean hasCandidates(InspectionSettings settings) {
+      if (starts.length < settings.minimumArgumentCount) {
+        return false;
+      }
+      for (int i = 0; i < starts.length; ++i) {
+        if (!commented[i] && settings.isReported(kinds[i])) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
   @NotNull
   public String getFamilyName() {
-    return getText();
+    return ARGUMENT_TEXT;
   }
 
   @Override
@@ -49,76 +130,113 @@ public class OptionalRefactor extends PsiElementBaseIntentionAction implements L
   @Override
   public boolean isAvailable(@NotNull Project project, Editor editor,
       @Nullable PsiElement elementUnderCursor) {
-    PsiExpressionList arguments = PsiTreeUtil
-        .getParentOfType(elementUnderCursor, PsiExpressionList.class);
-    if (arguments == null) {
+    if (elementUnderCursor == null) {
       return false;
     }
-    if (!(findChildOnWayToLeaf(arguments, elementUnderCursor) instanceof PsiExpression)) {
-      return false;
+    if (editor != null && editor.getSelectionModel().hasSelection()) {
+      setText(SELECTION_TEXT);
+      return CallCommenter.hasCandidatesIn(elementUnderCursor.getContainingFile(),
+          new TextRange(editor.getSelectionModel().getSelectionStart(),
+              editor.getSelectionModel().getSelectionEnd()),
+          CommentLiteralArgumentsAction.getSettings(project));
     }
-
-    PsiCallExpression methodCall = PsiTreeUtil
-        .getParentOfType(arguments, PsiMethodCallExpression.class, PsiNewExpression.class);
-    if (methodCall == null) {
-      return false;
+    PsiCallExpression call = calledAt(elementUnderCursor);
+    if (call != null) {
+      setText(CALL_TEXT);
+      return ArgumentLayout.of(call.getArgumentList())
+          .hasCandidates(CommentLiteralArgumentsAction.getSettings(project));
     }
-    PsiMethod method = methodCall instanceof PsiNewExpression ? ((PsiNewExpression) methodCall)
-        .resolveConstructor() : methodCall.resolveMethod();
-
-    PsiParameter[] parameters = getParametersOfMethod(method).orElse(null);
-    if (parameters == null) {
+    PsiExpressionList arguments = argumentListAt(elementUnderCursor);
+    if (arguments == null) {
       return false;
     }
-
-    int index = findExpressionOnWayToLeaf(arguments, elementUnderCursor);
-    return index < parameters.length && !isCommented(arguments.getExpressions()[index]);
+    setText(ARGUMENT_TEXT);
+    ArgumentLayout layout = ArgumentLayout.of(arguments);
+    int index = layout.indexAt(elementUnderCursor.getTextRange().getStartOffset());
+    return index >= 0 && !layout.commented[index];
   }
 
-  private PsiElement findChildOnWayToLeaf(PsiElement list, PsiElement leaf) {
-    for (int i = 0; i < list.getChildren().length; ++i) {
-      PsiElement child = list.getChildren()[i];
-      if (PsiTreeUtil.isAncestor(child, leaf, /* strict= */false)) {
-        return child;
+  @Override
+  public void invoke(@NotNull Project project, Editor editor,
+      @NotNull PsiElement elementUnderCursor) throws IncorrectOperationException {
+    PsiFile file = elementUnderCursor.getContainingFile();
+    Map<PsiCallExpression, List<TextRange>> targets = new LinkedHashMap<>();
+    String hint = calledAt(elementUnderCursor) != null ? CALL_HINT : ARGUMENT_HINT;
+    if (editor == null) {
+      addCaret(targets, elementUnderCursor);
+    } else {
+      for (Caret caret : editor.getCaretModel().getAllCarets()) {
+        if (caret.hasSelection()) {
+          hint = SELECTION_HINT;
+          CallCommenter.addRange(targets, file,
+              new TextRange(caret.getSelectionStart(), caret.getSelectionEnd()));
+        } else if (caret == editor.getCaretModel().getPrimaryCaret()) {
+          addCaret(targets, elementUnderCursor);
+        } else {
+          PsiElement element = file.findElementAt(caret.getOffset());
+          if (element != null) {
+            addCaret(targets, element);
+          }
+        }
       }
     }
-    throw new RuntimeException("Could not find argument expression");
-  }
 
-  private int findExpressionOnWayToLeaf(PsiExpressionList list, PsiElement leaf) {
-    for (int i = 0; i < list.getExpressions().length; ++i) {
-      PsiExpression child = list.getExpressions()[i];
-      if (PsiTreeUtil.isAncestor(child, leaf, /* strict= */false)) {
-        return i;
-      }
+    CallCommenter commenter =
+        new CallCommenter(project, CommentLiteralArgumentsAction.getSettings(project));
+    if (commenter.comment(targets) == 0 && editor != null) {
+      HintManager.getInstance().showErrorHint(editor,
+          commenter.getUnresolvedCalls() > 0 ? UNRESOLVED_HINT : hint);
     }
-    throw new RuntimeException("Could not find argument expression");
   }
 
-  @Override
-  public void invoke(@NotNull Project project, Editor editor,
-      @NotNull PsiElement elementUnderCursor) throws IncorrectOperationException {
-    PsiExpressionList arguments = PsiTreeUtil
-        .getParentOfType(elementUnderCursor, PsiExpressionList.class);
-    if (arguments == null) {
+  /**
+   * Chooses the call named at {@code element}, or the argument containing it.
+   */
+  private static void addCaret(Map<PsiCallExpression, List<TextRange>> targets,
+      PsiElement element) {
+    PsiCallExpression call = calledAt(element);
+    if (call != null) {
+      targets.computeIfAbsent(call, key -> new ArrayList<>())
+          .add(call.getArgumentList().getTextRange());
       return;
     }
-    PsiCallExpression methodCall = PsiTreeUtil
-        .getParentOfType(arguments, PsiMethodCallExpression.class, PsiNewExpression.class);
-    if (methodCall == null) {
-      return;
+    PsiExpressionList arguments = argumentListAt(element);
+    if (arguments != null) {
+      targets.computeIfAbsent((PsiCallExpression) arguments.getParent(),
+          key -> new ArrayList<>()).add(TextRange.from(element.getTextRange().getStartOffset(), 0));
     }
-    PsiMethod method = methodCall instanceof PsiNewExpression ? ((PsiNewExpression) methodCall)
-        .resolveConstructor() : methodCall.resolveMethod();
-
-    PsiParameter[] parameters = getParametersOfMethod(method).orElse(null);
-    if (parameters != null) {
-      int index = findExpressionOnWayToLeaf(arguments, elementUnderCursor);
-      PsiExpression argument = arguments.getExpressions()[index];
-      if (index < parameters.length) {
-        PsiParameter param = parameters[index];
-        addComment(project, param.getName(), argument);
-      }
+  }
+
+  /**
+   * Returns the call whose method or class name {@code element} is, if it has arguments.
+   */
+  @Nullable
+  private static PsiCallExpression calledAt(PsiElement element) {
+    if (!(element instanceof PsiIdentifier)) {
+      return null;
+    }
+    PsiElement reference = element.getParent();
+    PsiElement parent = reference == null ? null : reference.getParent();
+    PsiCallExpression call = null;
+    if (parent instanceof PsiMethodCallExpression
+        && ((PsiMethodCallExpression) parent).getMethodExpression() == reference) {
+      call = (PsiCallExpression) parent;
+    } else if (parent instanceof PsiNewExpression
+        && ((PsiNewExpression) parent).getClassReference() == reference) {
+      call = (PsiCallExpression) parent;
     }
+    return call == null || call.getArgumentList() == null || call.getArgumentList().isEmpty()
+        ? null : call;
+  }
+
+  /**
+   * Returns the argument list of the method or constructor call {@code element} is an argument
+   * in, or null.
+   */
+  @Nullable
+  private static PsiExpressionList argumentListAt(PsiElement element) {
+    PsiExpressionList arguments = PsiTreeUtil.getParentOfType(element, PsiExpressionList.class);
+    return arguments != null && !arguments.isEmpty()
+        && arguments.getParent() instanceof PsiCallExpression ? arguments : null;
   }
 }
@@ -0,0 +1,83 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Rewrites a comment that names the wrong parameter, for example after the parameter was renamed.
+ * Like {@link LiteralParamQuickFix}, the comment is taken from the {@link ProblemDescriptor}, so
+ * one instance is shared by every problem with the same parameter name.
+ */
+class ParameterCommentQuickFix implements LocalQuickFix, DumbAware {
+
+  static final String DESCRIPTION = "Comment doesn't match the parameter name '%s'.";
+
+  /**
+   * Past this many names, new fixes are no longer shared.
+   */
+  private static final int MAX_SHARED_NAMES = 4096;
+
+  private static final Map<String, ParameterCommentQuickFix> SHARED = new ConcurrentHashMap<>();
+
+  private final String paramName;
+
+  private ParameterCommentQuickFix(String paramName) {
+    this.paramName = paramName;
+  }
+
+  static ParameterCommentQuickFix of(String paramName) {
+    ParameterCommentQuickFix fix = SHARED.get(paramName);
+    if (fix != null) {
+      return fix;
+    }
+    fix = new ParameterCommentQuickFix(paramName);
+    if (SHARED.size() >= MAX_SHARED_NAMES) {
+      return fix;
+    }
+    ParameterCommentQuickFix existing = SHARED.putIfAbsent(paramName, fix);
+    return existing != null ? existing : fix;
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return "Change comment to '" + paramName + "'";
+  }
+
+  @NotNull
+  @Override
+  public String getFamilyName() {
+    return "Fix parameter comment";
+  }
+
+  @Override
+  public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+    PsiElement element = descriptor.getPsiElement();
+    if (!(element instanceof PsiComment) || !element.isValid()) {
+      return;
+    }
+    element.replace(JavaPsiFacade.getElementFactory(project)
+        .createCommentFromText(CommentTemplate.current().format(paramName), null));
+  }
+}
@@ -0,0 +1,150 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Parameter names of compiled methods, by signature. Names of library methods come from attached
+ * sources or the class file and can be expensive to look up, while the PSI holding them may be
+ * collected and rebuilt many times during a session.
+ *
+ * <p>The cache is split into segments, each an LRU map behind its own lock, and is bounded by the
+ * approximate size of its keys and values rather than by entry count.
+ */
+final class ParameterNameCache {
+
+  static final ParameterNameCache GLOBAL =
+      new ParameterNameCache(/* maxBytes= */ 4 << 20, /* segmentCount= */ 16);
+
+  private final Segment[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  ParameterNameCache(long maxBytes, int segmentCount) {
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; ++i) {
+      segments[i] = new Segment(maxBytes / segmentCount);
+    }
+  }
+
+  /**
+   * Returns the cached names for {@code signature}, or computes and caches them. The names are
+   * computed outside any lock, so two threads may both compute a missing entry.
+   */
+  String[] get(String signature, Supplier<String[]> parameterNames) {
+    Segment segment = segmentFor(signature);
+    String[] names;
+    synchronized (segment) {
+      names = segment.get(signature);
+    }
+    if (names != null) {
+      hits.increment();
+      return names;
+    }
+    misses.increment();
+    names = parameterNames.get();
+    synchronized (segment) {
+      segment.add(signature, names);
+    }
+    return names;
+  }
+
+  void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+        segment.bytes = 0;
+      }
+    }
+  }
+
+  void resetStats() {
+    hits.reset();
+    misses.reset();
+  }
+
+  long hits() {
+    return hits.sum();
+  }
+
+  long misses() {
+    return misses.sum();
+  }
+
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  long bytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        bytes += segment.bytes;
+      }
+    }
+    return bytes;
+  }
+
+  private Segment segmentFor(String signature) {
+    int hash = signature.hashCode();
+    return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private static final class Segment extends LinkedHashMap<String, String[]> {
+
+    private final long maxBytes;
+    long bytes;
+
+    Segment(long maxBytes) {
+      super(/* initialCapacity= */ 64, /* loadFactor= */ 0.75f, /* accessOrder= */ true);
+      this.maxBytes = maxBytes;
+    }
+
+    void add(String signature, String[] names) {
+      String[] previous = put(signature, names);
+      if (previous != null) {
+        bytes -= sizeOf(signature, previous);
+      }
+      bytes += sizeOf(signature, names);
+      Iterator<Map.Entry<String, String[]>> eldest = entrySet().iterator();
+      while (bytes > maxBytes && eldest.hasNext()) {
+        Map.Entry<String, String[]> entry = eldest.next();
+        bytes -= sizeOf(entry.getKey(), entry.getValue());
+        eldest.remove();
+      }
+    }
+
+    /**
+     * Roughly what an entry retains, counting one byte per character of compact strings.
+     */
+    private static long sizeOf(String signature, String[] names) {
+      long size = 96 + signature.length();
+      for (String name : names) {
+        size += 40 + (name == null ? 0 : name.length());
+      }
+      return size;
+    }
+  }
+}
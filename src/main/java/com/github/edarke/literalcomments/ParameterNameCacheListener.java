@@ -13,32 +13,17 @@
 
 package com.github.edarke.literalcomments;
 
-import com.intellij.codeInspection.InspectionToolProvider;
-import com.intellij.openapi.components.ApplicationComponent;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
 import org.jetbrains.annotations.NotNull;
 
-public class LiteralArgumentsProvider implements ApplicationComponent, InspectionToolProvider {
+/**
+ * Empties {@link ParameterNameCache} when libraries are added, removed or updated.
+ */
+public class ParameterNameCacheListener implements ModuleRootListener {
 
   @Override
-  public void initComponent() {
-    // do nothing
-  }
-
-  @Override
-  public void disposeComponent() {
-    // do nothing
-  }
-
-  @Override
-  @NotNull
-  public String getComponentName() {
-    return "InspectionRegistration";
-  }
-
-
-  @NotNull
-  public Class[] getInspectionClasses() {
-    return new Class[]{LiteralArgumentsInspection.class};
+  public void rootsChanged(@NotNull ModuleRootEvent event) {
+    ParameterNameCache.GLOBAL.clear();
   }
 }
-
@@ -0,0 +1,488 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiCallExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiImportStaticStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiSuperExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Parameter names of the methods the inspection resolved, saved between sessions so that calls
+ * can still be checked while the IDE is indexing and nothing can be resolved.
+ *
+ * <p>Methods are keyed by qualified name and parameter count, {@code pkg.Class.method/2}, or
+ * {@code new pkg.Class/2} for constructors. Without resolution a call is matched by its syntax. A
+ * call qualified with a class name is looked up in that class, qualified through the file's
+ * imports, its package and java.lang, and otherwise matched against every class with that simple
+ * name. An unqualified call is looked up in each enclosing class and the classes it could be
+ * statically imported from. Calls on a variable or any other expression, and unqualified calls not
+ * found that way, aren't matched at all, since guessing the receiver reports names of unrelated
+ * methods. When several methods match, only arguments whose parameter name every match agrees on
+ * are reported.
+ *
+ * <p>Entries are refreshed whenever the method is resolved again, and dropped after
+ * {@link #MAX_IDLE_SESSIONS} sessions in which it wasn't.
+ */
+public final class ParameterNameStore implements Disposable {
+
+  private static final Logger LOG = Logger.getInstance(LiteralArgumentsInspection.class.getName());
+
+  private static final int VERSION = 1;
+  private static final int MAX_ENTRIES = 100_000;
+  private static final int MAX_IDLE_SESSIONS = 20;
+
+  private static final class Entry {
+
+    final String qualifiedClassName;
+    final boolean constructor;
+    final MethodDescriptor descriptor;
+    volatile int lastSeen;
+
+    Entry(String qualifiedClassName, boolean constructor, MethodDescriptor descriptor,
+        int lastSeen) {
+      this.qualifiedClassName = qualifiedClassName;
+      this.constructor = constructor;
+      this.descriptor = descriptor;
+      this.lastSeen = lastSeen;
+    }
+
+    boolean describes(MethodDescriptor other) {
+      return descriptor.varargsIndex == other.varargsIndex
+          && descriptor.methodName.equals(other.methodName)
+          && Arrays.equals(descriptor.parameterNames, other.parameterNames);
+    }
+
+    String key() {
+      return qualifiedKey(constructor, qualifiedClassName, descriptor.methodName,
+          descriptor.parameterNames.length);
+    }
+
+    String simpleKey() {
+      return simpleKey(constructor, descriptor.methodName, descriptor.parameterNames.length);
+    }
+  }
+
+  private final Path file;
+  /**
+   * Entries by qualified key, read from disk on first use.
+   */
+  private volatile Map<String, Entry> entries;
+  /**
+   * Entries by {@code name/arity}, rebuilt on demand after entries change.
+   */
+  private volatile Map<String, List<Entry>> bySimpleKey;
+  private volatile int session;
+  private volatile boolean dirty;
+
+  public ParameterNameStore(Project project) {
+    this(Paths.get(PathManager.getSystemPath(), "literal-arguments",
+        project.getLocationHash() + ".names"));
+  }
+
+  ParameterNameStore(Path file) {
+    this.file = file;
+  }
+
+  static ParameterNameStore getInstance(Project project) {
+    return project.getService(ParameterNameStore.class);
+  }
+
+  /**
+   * Records the names of a resolved method, replacing what was recorded before.
+   */
+  void record(String qualifiedClassName, boolean constructor, MethodDescriptor descriptor) {
+    Map<String, Entry> entries = entries();
+    String key = qualifiedKey(constructor, qualifiedClassName, descriptor.methodName,
+        descriptor.parameterNames.length);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.describes(descriptor)) {
+      if (entry.lastSeen != session) {
+        entry.lastSeen = session;
+        dirty = true;
+      }
+      return;
+    }
+    if (entry == null && entries.size() >= MAX_ENTRIES) {
+      return;
+    }
+    entries.put(key, new Entry(qualifiedClassName, constructor, descriptor, session));
+    bySimpleKey = null;
+    dirty = true;
+  }
+
+  /**
+   * Returns what every recorded method the call could refer to agrees on, with a null name where
+   * they disagree, or null if nothing matches or a match is blacklisted.
+   */
+  @Nullable
+  MethodDescriptor find(PsiCallExpression call, MethodBlacklist blacklist) {
+    PsiExpressionList arguments = call.getArgumentList();
+    if (arguments == null) {
+      return null;
+    }
+    int arity = arguments.getExpressionCount();
+    if (call instanceof PsiNewExpression) {
+      PsiJavaCodeReferenceElement reference =
+          ((PsiNewExpression) call).getClassOrAnonymousClassReference();
+      String className = reference == null ? null : referenceText(reference);
+      if (className == null) {
+        return null;
+      }
+      String simpleName = className.substring(className.lastIndexOf('.') + 1);
+      return merge(find(/* constructor= */ true, qualify(className, call.getContainingFile()),
+          simpleName, simpleName, arity), arity, blacklist);
+    }
+    if (!(call instanceof PsiMethodCallExpression)) {
+      return null;
+    }
+
+    PsiReferenceExpression methodExpression = ((PsiMethodCallExpression) call)
+        .getMethodExpression();
+    String methodName = methodExpression.getReferenceName();
+    if (methodName == null) {
+      return null;
+    }
+    PsiExpression qualifier = methodExpression.getQualifierExpression();
+    List<String> classNames;
+    String simpleClassName = null;
+    if (qualifier == null) {
+      classNames = enclosingClasses(call);
+      classNames.addAll(staticImports(methodName, call.getContainingFile()));
+    } else if (qualifier instanceof PsiThisExpression) {
+      classNames = enclosingClasses(call);
+    } else if (qualifier instanceof PsiSuperExpression) {
+      return null;
+    } else {
+      String qualifierText = qualifier instanceof PsiReferenceExpression
+          ? referenceText((PsiReferenceExpression) qualifier) : null;
+      simpleClassName = qualifierText == null ? null
+          : qualifierText.substring(qualifierText.lastIndexOf('.') + 1);
+      if (simpleClassName != null && !simpleClassName.isEmpty()
+          && Character.isUpperCase(simpleClassName.charAt(0))) {
+        classNames = qualify(qualifierText, call.getContainingFile());
+      } else {
+        // Most likely a variable, whose type can't be known without resolving
+        return null;
+      }
+    }
+    return merge(find(/* constructor= */ false, classNames, methodName, simpleClassName, arity),
+        arity, blacklist);
+  }
+
+  /**
+   * Returns the entry of the first class that has the method, or otherwise every entry with the
+   * same name and arity in a class named {@code simpleClassName}, or nothing if it is null.
+   */
+  private List<Entry> find(boolean constructor, List<String> classNames, String methodName,
+      @Nullable String simpleClassName, int arity) {
+    Map<String, Entry> entries = entries();
+    for (String className : classNames) {
+      Entry entry = entries.get(qualifiedKey(constructor, className, methodName, arity));
+      if (entry != null) {
+        return Collections.singletonList(entry);
+      }
+    }
+    if (simpleClassName == null) {
+      return Collections.emptyList();
+    }
+    List<Entry> matches =
+        bySimpleKey().getOrDefault(simpleKey(constructor, methodName, arity),
+            Collections.emptyList());
+    List<Entry> inClass = new ArrayList<>();
+    for (Entry entry : matches) {
+      if (simpleClassName.equals(entry.descriptor.className)) {
+        inClass.add(entry);
+      }
+    }
+    return inClass;
+  }
+
+  @Nullable
+  private static MethodDescriptor merge(List<Entry> matches, int arity,
+      MethodBlacklist blacklist) {
+    if (matches.isEmpty()) {
+      return null;
+    }
+    MethodDescriptor first = matches.get(0).descriptor;
+    if (matches.size() == 1) {
+      return first.isBlackListed(blacklist) ? null : first;
+    }
+    String[] parameterNames = new String[arity];
+    for (int i = 0; i < matches.size(); ++i) {
+      MethodDescriptor descriptor = matches.get(i).descriptor;
+      if (descriptor.isBlackListed(blacklist)) {
+        return null;
+      }
+      for (int a = 0; a < arity; ++a) {
+        String name = a == descriptor.varargsIndex ? null : descriptor.parameterNames[a];
+        if (i == 0) {
+          parameterNames[a] = name;
+        } else if (parameterNames[a] != null && !parameterNames[a].equals(name)) {
+          parameterNames[a] = null;
+        }
+      }
+    }
+    return MethodDescriptor.of(first.className, first.methodName, parameterNames,
+        /* varargsIndex= */ -1);
+  }
+
+  /**
+   * Returns the qualified names {@code className} could have in {@code file}, most likely first.
+   */
+  private static List<String> qualify(String className, PsiFile file) {
+    List<String> names = new ArrayList<>();
+    if (className.indexOf('.') >= 0) {
+      names.add(className);
+    }
+    if (!(file instanceof PsiJavaFile)) {
+      return names;
+    }
+    String outerName = className.substring(0, Math.max(0, className.indexOf('.')));
+    String firstName = outerName.isEmpty() ? className : outerName;
+    String nested = className.substring(firstName.length());
+    PsiImportList imports = ((PsiJavaFile) file).getImportList();
+    if (imports != null) {
+      for (PsiImportStatement statement : imports.getImportStatements()) {
+        String imported = statement.getQualifiedName();
+        if (imported == null) {
+          continue;
+        }
+        if (statement.isOnDemand()) {
+          names.add(imported + '.' + className);
+        } else if (imported.endsWith('.' + firstName)) {
+          names.add(0, imported + nested);
+        }
+      }
+    }
+    String packageName = ((PsiJavaFile) file).getPackageName();
+    names.add(packageName.isEmpty() ? className : packageName + '.' + className);
+    names.add("java.lang." + className);
+    return names;
+  }
+
+  private static List<String> enclosingClasses(PsiElement element) {
+    List<String> names = new ArrayList<>();
+    for (PsiClass psiClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        psiClass != null; psiClass = PsiTreeUtil.getParentOfType(psiClass, PsiClass.class)) {
+      if (psiClass.getQualifiedName() != null) {
+        names.add(psiClass.getQualifiedName());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Returns the qualified names of the classes {@code methodName} could be statically imported
+   * from in {@code file}, single imports first.
+   */
+  private static List<String> staticImports(String methodName, PsiFile file) {
+    List<String> names = new ArrayList<>();
+    PsiImportList imports = file instanceof PsiJavaFile ? ((PsiJavaFile) file).getImportList()
+        : null;
+    if (imports == null) {
+      return names;
+    }
+    for (PsiImportStaticStatement statement : imports.getImportStaticStatements()) {
+      PsiJavaCodeReferenceElement reference = statement.getImportReference();
+      String imported = reference == null ? null : referenceText(reference);
+      if (imported == null) {
+        continue;
+      }
+      if (statement.isOnDemand()) {
+        names.add(imported);
+      } else if (methodName.equals(statement.getReferenceName())) {
+        names.add(0, imported.substring(0, Math.max(0, imported.lastIndexOf('.'))));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Returns a reference such as {@code java.util.Map.Entry} as written, without type arguments,
+   * or null if part of it isn't a name.
+   */
+  @Nullable
+  private static String referenceText(PsiJavaCodeReferenceElement reference) {
+    String name = reference.getReferenceName();
+    if (name == null) {
+      return null;
+    }
+    PsiElement qualifier = reference.getQualifier();
+    if (qualifier == null) {
+      return name;
+    }
+    String qualifierText = qualifier instanceof PsiJavaCodeReferenceElement
+        ? referenceText((PsiJavaCodeReferenceElement) qualifier) : null;
+    return qualifierText == null ? null : qualifierText + '.' + name;
+  }
+
+  private static String qualifiedKey(boolean constructor, String qualifiedClassName,
+      String methodName, int arity) {
+    return constructor ? "new " + qualifiedClassName + '/' + arity
+        : qualifiedClassName + '.' + methodName + '/' + arity;
+  }
+
+  /**
+   * The same keys as {@link LiteralCallSiteIndex}'s.
+   */
+  private static String simpleKey(boolean constructor, String methodName, int arity) {
+    return (constructor ? "new " : "") + methodName + '/' + arity;
+  }
+
+  private Map<String, List<Entry>> bySimpleKey() {
+    Map<String, List<Entry>> bySimpleKey = this.bySimpleKey;
+    if (bySimpleKey == null) {
+      bySimpleKey = new HashMap<>();
+      for (Entry entry : entries().values()) {
+        bySimpleKey.computeIfAbsent(entry.simpleKey(), key -> new ArrayList<>()).add(entry);
+      }
+      this.bySimpleKey = bySimpleKey;
+    }
+    return bySimpleKey;
+  }
+
+  private Map<String, Entry> entries() {
+    Map<String, Entry> entries = this.entries;
+    if (entries == null) {
+      synchronized (this) {
+        if (this.entries == null) {
+          this.entries = load();
+        }
+        entries = this.entries;
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Reads the entries saved by the last session, dropping those that have been idle too long.
+   */
+  private Map<String, Entry> load() {
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != VERSION) {
+        session = 1;
+        return entries;
+      }
+      session = in.readInt() + 1;
+      int count = in.readInt();
+      for (int i = 0; i < count; ++i) {
+        String qualifiedClassName = in.readUTF();
+        boolean constructor = in.readBoolean();
+        String methodName = in.readUTF();
+        String[] parameterNames = new String[in.readUnsignedShort()];
+        for (int p = 0; p < parameterNames.length; ++p) {
+          String name = in.readUTF();
+          parameterNames[p] = name.isEmpty() ? null : name;
+        }
+        int varargsIndex = in.readShort();
+        int lastSeen = in.readInt();
+        if (session - lastSeen <= MAX_IDLE_SESSIONS) {
+          String className =
+              qualifiedClassName.substring(qualifiedClassName.lastIndexOf('.') + 1);
+          Entry entry = new Entry(qualifiedClassName, constructor,
+              MethodDescriptor.of(className, methodName, parameterNames, varargsIndex), lastSeen);
+          entries.put(entry.key(), entry);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      session = 1;
+    } catch (IOException e) {
+      LOG.warn("Discarding saved parameter names in " + file, e);
+      entries.clear();
+      session = 1;
+    }
+    return entries;
+  }
+
+  /**
+   * Writes the entries if they changed, replacing the previous file only once it's complete.
+   */
+  synchronized void save() {
+    Map<String, Entry> entries = this.entries;
+    if (entries == null || !dirty) {
+      return;
+    }
+    dirty = false;
+    try {
+      Files.createDirectories(file.getParent());
+      Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+      List<Entry> snapshot = new ArrayList<>(entries.values());
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(VERSION);
+        out.writeInt(session);
+        out.writeInt(snapshot.size());
+        for (Entry entry : snapshot) {
+          out.writeUTF(entry.qualifiedClassName);
+          out.writeBoolean(entry.constructor);
+          out.writeUTF(entry.descriptor.methodName);
+          out.writeShort(entry.descriptor.parameterNames.length);
+          for (String name : entry.descriptor.parameterNames) {
+            // Unknown names are written as the empty string
+            out.writeUTF(name == null ? "" : name);
+          }
+          out.writeShort(entry.descriptor.varargsIndex);
+          out.writeInt(entry.lastSeen);
+        }
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.warn("Couldn't save parameter names to " + file, e);
+    }
+  }
+
+  @Override
+  public void dispose() {
+    save();
+  }
+}
@@ -0,0 +1,489 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.SourceTokens.ELLIPSIS;
+import static com.github.edarke.literalcomments.SourceTokens.IDENTIFIER;
+import static com.github.edarke.literalcomments.SourceTokens.NUMBER;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds method declarations and candidate call sites in a token stream, without building a syntax
+ * tree. Applies the same syntactic rules as {@code LiteralArgumentElementVisitor}: a call is a
+ * candidate if it has at least two arguments and one of them is an uncommented literal.
+ */
+final class SourceScanner {
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("assert", "catch", "do",
+      "else", "for", "if", "new", "return", "super", "switch", "synchronized", "this", "throw",
+      "try", "while", "yield"));
+
+  /**
+   * A method or constructor declared in the scanned sources.
+   */
+  static final class Declaration {
+
+    final String className;
+    final String name;
+    final String[] parameterNames;
+    final int varargsIndex;
+    final boolean blacklisted;
+
+    Declaration(String className, String name, String[] parameterNames, int varargsIndex) {
+      this.className = className;
+      this.name = name;
+      this.parameterNames = parameterNames;
+      this.varargsIndex = varargsIndex;
+      this.blacklisted = MethodBlacklist.getDefault().matches(className, name, parameterNames);
+    }
+
+    boolean acceptsArity(int arity) {
+      return parameterNames.length == arity
+          || (varargsIndex >= 0 && arity >= parameterNames.length - 1);
+    }
+  }
+
+  /**
+   * A call with at least one uncommented literal argument.
+   */
+  static final class CallSite {
+
+    final String name;
+    final int arity;
+    final boolean constructor;
+    /**
+     * The class the call is qualified with or, for unqualified calls, the enclosing class. Null if
+     * the qualifier is an expression.
+     */
+    final String classHint;
+    final boolean qualified;
+    final int[] candidates;
+    final int[] offsets;
+
+    CallSite(String name, int arity, boolean constructor, String classHint, boolean qualified,
+        int[] candidates, int[] offsets) {
+      this.name = name;
+      this.arity = arity;
+      this.constructor = constructor;
+      this.classHint = classHint;
+      this.qualified = qualified;
+      this.candidates = candidates;
+      this.offsets = offsets;
+    }
+  }
+
+  final List<Declaration> declarations = new ArrayList<>();
+  final List<CallSite> callSites = new ArrayList<>();
+  /**
+   * True if an argument of some call has a comment naming its parameter, which the inspection
+   * checks against the parameter's actual name.
+   */
+  boolean hasParameterComments;
+
+  private final SourceTokens tokens;
+  private final List<String> classes = new ArrayList<>();
+  /**
+   * The superclass of each entry in {@link #classes}, or null if it doesn't extend a class.
+   */
+  private final List<String> superclasses = new ArrayList<>();
+  private String pendingClass;
+  private String pendingSuperclass;
+  private int anonymousBrace = -1;
+  private int constructorParen = -1;
+
+  private SourceScanner(SourceTokens tokens) {
+    this.tokens = tokens;
+  }
+
+  static SourceScanner scan(ByteBuffer source) {
+    SourceScanner scanner = new SourceScanner(SourceTokens.lex(source));
+    scanner.scan();
+    return scanner;
+  }
+
+  private void scan() {
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (tokens.is(i, '{')) {
+        boolean declared = pendingClass != null;
+        classes.add(i == anonymousBrace ? null : declared ? pendingClass : current());
+        superclasses.add(i == anonymousBrace ? null : declared ? pendingSuperclass : superclass());
+        pendingClass = null;
+        pendingSuperclass = null;
+      } else if (tokens.is(i, '}')) {
+        if (!classes.isEmpty()) {
+          classes.remove(classes.size() - 1);
+          superclasses.remove(superclasses.size() - 1);
+        }
+      } else if (tokens.kind(i) != IDENTIFIER) {
+        continue;
+      } else if (isTypeDeclaration(i)) {
+        pendingClass = tokens.text(i + 1);
+        pendingSuperclass = superclassOf(i + 1);
+      } else if (tokens.is(i, "new")) {
+        scanConstructorCall(i);
+      } else if ((tokens.is(i, "this") || tokens.is(i, "super")) && tokens.is(i + 1, '(')
+          && (tokens.is(i - 1, '{') || tokens.is(i - 1, ';'))) {
+        scanConstructorInvocation(i);
+      } else if (tokens.is(i + 1, '(') && i + 1 != constructorParen && !tokens.is(i - 1, '@')) {
+        String name = tokens.text(i);
+        if (!KEYWORDS.contains(name)) {
+          scanParenthesized(i, name);
+        }
+      }
+    }
+  }
+
+  private String current() {
+    return classes.isEmpty() ? null : classes.get(classes.size() - 1);
+  }
+
+  private String superclass() {
+    return superclasses.isEmpty() ? null : superclasses.get(superclasses.size() - 1);
+  }
+
+  /**
+   * Returns the simple name of the class named in the {@code extends} clause of the type declared
+   * at {@code nameToken}, or null if there is none.
+   */
+  private String superclassOf(int nameToken) {
+    int i = nameToken + 1;
+    if (tokens.is(i, '<')) {
+      i = matching(i, '<', '>') + 1;
+    }
+    if (!tokens.is(i, "extends")) {
+      return null;
+    }
+    String name = null;
+    for (++i; i < tokens.size() && (tokens.kind(i) == IDENTIFIER || tokens.is(i, '.')); ++i) {
+      if (tokens.kind(i) == IDENTIFIER) {
+        name = tokens.text(i);
+      }
+    }
+    return name;
+  }
+
+  private boolean isTypeDeclaration(int i) {
+    return (tokens.is(i, "class") || tokens.is(i, "interface") || tokens.is(i, "enum")
+        || tokens.is(i, "record")) && !tokens.is(i - 1, '.') && i + 1 < tokens.size()
+        && tokens.kind(i + 1) == IDENTIFIER;
+  }
+
+  /**
+   * Handles {@code name(...)}, which is either a declaration or a method call.
+   */
+  private void scanParenthesized(int nameToken, String name) {
+    int open = nameToken + 1;
+    int close = matching(open, '(', ')');
+    List<int[]> arguments = split(open, close);
+    if (isDeclaration(nameToken, close, arguments)) {
+      String[] parameterNames = new String[arguments.size()];
+      int varargsIndex = -1;
+      for (int p = 0; p < parameterNames.length; ++p) {
+        int nameIndex = parameterName(arguments.get(p)[0], arguments.get(p)[1]);
+        parameterNames[p] = tokens.text(nameIndex);
+        if (tokens.kind(nameIndex - 1) == ELLIPSIS) {
+          varargsIndex = p;
+        }
+      }
+      boolean constructor = name.equals(pendingClass) || name.equals(current());
+      declarations.add(new Declaration(constructor ? name : current(), name, parameterNames,
+          varargsIndex));
+      return;
+    }
+
+    int previous = nameToken - 1;
+    if (tokens.is(previous, '>')) {
+      // Explicit type arguments, as in Foo.<T>bar()
+      previous = matchingBackwards(previous, '<', '>') - 1;
+    }
+    if (!tokens.is(previous, '.') || tokens.is(previous - 1, "this")) {
+      addCallSite(name, /* constructor= */ false, current(), /* qualified= */ false, arguments);
+    } else if (previous > 0 && tokens.kind(previous - 1) == IDENTIFIER
+        && Character.isUpperCase(tokens.charAt(previous - 1))) {
+      addCallSite(name, /* constructor= */ false, tokens.text(previous - 1), /* qualified= */ true,
+          arguments);
+    } else {
+      addCallSite(name, /* constructor= */ false, null, /* qualified= */ true, arguments);
+    }
+  }
+
+  private void scanConstructorCall(int newToken) {
+    int i = newToken + 1;
+    int className = -1;
+    while (i < tokens.size() && (tokens.kind(i) == IDENTIFIER || tokens.is(i, '.'))) {
+      if (tokens.kind(i) == IDENTIFIER) {
+        className = i;
+      }
+      ++i;
+    }
+    if (tokens.is(i, '<')) {
+      i = matching(i, '<', '>') + 1;
+    }
+    if (className < 0 || !tokens.is(i, '(')) {
+      return;
+    }
+    constructorParen = i;
+    int close = matching(i, '(', ')');
+    if (tokens.is(close + 1, '{')) {
+      anonymousBrace = close + 1;
+    }
+    String name = tokens.text(className);
+    addCallSite(name, /* constructor= */ true, name, /* qualified= */ true, split(i, close));
+  }
+
+  /**
+   * Handles {@code this(...)} and {@code super(...)} at the start of a constructor, which call a
+   * constructor of the enclosing class or of its superclass.
+   */
+  private void scanConstructorInvocation(int keyword) {
+    String name = tokens.is(keyword, "this") ? current() : superclass();
+    if (name != null) {
+      int open = keyword + 1;
+      addCallSite(name, /* constructor= */ true, name, /* qualified= */ true,
+          split(open, matching(open, '(', ')')));
+    }
+  }
+
+  private void addCallSite(String name, boolean constructor, String classHint, boolean qualified,
+      List<int[]> arguments) {
+    if (arguments.size() < 2) {
+      return;
+    }
+    int count = 0;
+    int[] candidates = new int[arguments.size()];
+    for (int a = 0; a < arguments.size(); ++a) {
+      int start = arguments.get(a)[0];
+      if (!tokens.isCommented(start)) {
+        if (isLiteral(start, arguments.get(a)[1])) {
+          candidates[count++] = a;
+        }
+      } else if (!hasParameterComments) {
+        hasParameterComments = parameterName(tokens.commentBefore(start)) != null;
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+    candidates = Arrays.copyOf(candidates, count);
+    int[] offsets = new int[count];
+    for (int c = 0; c < count; ++c) {
+      offsets[c] = tokens.start(arguments.get(candidates[c])[0]);
+    }
+    callSites.add(new CallSite(name, arguments.size(), constructor, classHint, qualified,
+        candidates, offsets));
+  }
+
+  /**
+   * Returns the name in a block comment of the form {@code name=}, with any spacing, or null if
+   * {@code comment} is any other kind of comment.
+   */
+  static String parameterName(String comment) {
+    if (comment.length() < 5 || !comment.startsWith("/*") || !comment.endsWith("*/")) {
+      return null;
+    }
+    int end = comment.length() - 2;
+    while (end > 2 && Character.isWhitespace(comment.charAt(end - 1))) {
+      --end;
+    }
+    if (comment.charAt(end - 1) != '=') {
+      return null;
+    }
+    --end;
+    while (end > 2 && Character.isWhitespace(comment.charAt(end - 1))) {
+      --end;
+    }
+    int start = 2;
+    while (start < end && Character.isWhitespace(comment.charAt(start))) {
+      ++start;
+    }
+    if (start == end || !Character.isJavaIdentifierStart(comment.charAt(start))) {
+      return null;
+    }
+    for (int i = start + 1; i < end; ++i) {
+      if (!Character.isJavaIdentifierPart(comment.charAt(i))) {
+        return null;
+      }
+    }
+    return comment.substring(start, end);
+  }
+
+  /**
+   * Same literal kinds as the inspection: numbers, booleans, null, empty optionals and casts of
+   * those. Strings and chars are self-documenting.
+   */
+  private boolean isLiteral(int start, int end) {
+    if (end - start == 1) {
+      return tokens.kind(start) == NUMBER || tokens.is(start, "true") || tokens.is(start, "false")
+          || tokens.is(start, "null");
+    }
+    if (tokens.is(start, '(')) {
+      int close = matching(start, '(', ')');
+      return close < end - 1 && isCastType(start + 1, close) && isLiteral(close + 1, end);
+    }
+    return isEmptyOptional(start, end);
+  }
+
+  private boolean isCastType(int start, int end) {
+    for (int i = start; i < end; ++i) {
+      if (tokens.kind(i) != IDENTIFIER && !tokens.is(i, '.') && !tokens.is(i, '<')
+          && !tokens.is(i, '>') && !tokens.is(i, ',') && !tokens.is(i, '[')
+          && !tokens.is(i, ']') && !tokens.is(i, '?')) {
+        return false;
+      }
+    }
+    return end > start;
+  }
+
+  private boolean isEmptyOptional(int start, int end) {
+    if (end - start < 5 || !tokens.is(end - 2, '(') || !tokens.is(end - 1, ')')) {
+      return false;
+    }
+    String[] qualifier;
+    if (tokens.is(end - 3, "empty")) {
+      qualifier = new String[]{"java", "util"};
+    } else if (tokens.is(end - 3, "absent")) {
+      qualifier = new String[]{"com", "google", "common", "base"};
+    } else {
+      return false;
+    }
+    int i = end - 4;
+    if (tokens.is(i, '>')) {
+      i = matchingBackwards(i, '<', '>') - 1;
+    }
+    if (!tokens.is(i, '.') || !tokens.is(i - 1, "Optional")) {
+      return false;
+    }
+    int packageStart = i - 1 - 2 * qualifier.length;
+    if (packageStart == start) {
+      for (int p = 0; p < qualifier.length; ++p) {
+        if (!tokens.is(packageStart + 2 * p, qualifier[p])
+            || !tokens.is(packageStart + 2 * p + 1, '.')) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return i - 1 == start;
+  }
+
+  private boolean isDeclaration(int nameToken, int close, List<int[]> parameters) {
+    if (tokens.is(nameToken - 1, '.') || tokens.is(nameToken - 1, "new")) {
+      return false;
+    }
+    int next = close + 1;
+    boolean body = tokens.is(next, '{') || tokens.is(next, "throws") || tokens.is(next, "default")
+        || tokens.is(next, "implements");
+    if (!body && !(tokens.is(next, ';') && !parameters.isEmpty())) {
+      return false;
+    }
+    for (int[] parameter : parameters) {
+      if (parameterName(parameter[0], parameter[1]) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the token holding the name of a parameter declaration, or -1 if the tokens don't look
+   * like one.
+   */
+  private int parameterName(int start, int end) {
+    while (tokens.is(start, '@') && start + 1 < end) {
+      start += 2;
+      while (tokens.is(start, '.') && start + 1 < end) {
+        start += 2;
+      }
+      if (tokens.is(start, '(')) {
+        start = matching(start, '(', ')') + 1;
+      }
+    }
+    if (tokens.is(start, "final")) {
+      ++start;
+    }
+    int name = end - 1;
+    while (tokens.is(name, ']') && tokens.is(name - 1, '[')) {
+      name -= 2;
+    }
+    if (name - start < 1 || tokens.kind(name) != IDENTIFIER) {
+      return -1;
+    }
+    int type = name - 1;
+    boolean typeLike = tokens.kind(type) == IDENTIFIER || tokens.kind(type) == ELLIPSIS
+        || tokens.is(type, '>') || tokens.is(type, ']');
+    return typeLike && !tokens.is(type, "instanceof") && !tokens.is(type, "new") ? name : -1;
+  }
+
+  /**
+   * Splits the tokens between {@code open} and {@code close} at top-level commas.
+   */
+  private List<int[]> split(int open, int close) {
+    List<int[]> arguments = new ArrayList<>();
+    if (close == open + 1) {
+      return arguments;
+    }
+    int depth = 0;
+    int start = open + 1;
+    boolean inNewType = false;
+    for (int i = open + 1; i < close; ++i) {
+      if (tokens.is(i, "new")) {
+        inNewType = true;
+      } else if (tokens.is(i, '<') && (inNewType || tokens.is(i - 1, '.'))) {
+        i = matching(i, '<', '>');
+      } else if (tokens.is(i, '(') || tokens.is(i, '[') || tokens.is(i, '{')) {
+        inNewType = false;
+        ++depth;
+      } else if (tokens.is(i, ')') || tokens.is(i, ']') || tokens.is(i, '}')) {
+        --depth;
+      } else if (depth == 0 && tokens.is(i, ',')) {
+        arguments.add(new int[]{start, i});
+        start = i + 1;
+      }
+    }
+    arguments.add(new int[]{start, close});
+    return arguments;
+  }
+
+  private int matching(int open, char opening, char closing) {
+    int depth = 0;
+    for (int i = open; i < tokens.size(); ++i) {
+      if (tokens.is(i, opening)) {
+        ++depth;
+      } else if (tokens.is(i, closing) && --depth == 0) {
+        return i;
+      } else if (opening == '<' && (tokens.is(i, ';') || tokens.is(i, '{'))) {
+        return i - 1;
+      }
+    }
+    return tokens.size();
+  }
+
+  private int matchingBackwards(int close, char opening, char closing) {
+    int depth = 0;
+    for (int i = close; i >= 0; --i) {
+      if (tokens.is(i, closing)) {
+        ++depth;
+      } else if (tokens.is(i, opening) && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
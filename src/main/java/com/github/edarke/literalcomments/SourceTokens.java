@@ -0,0 +1,264 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The tokens of a Java source file, lexed straight from its UTF-8 bytes. Comments are not tokens;
+ * instead each token records the last comment between it and the previous token, which is all
+ * {@code isCommented} needs.
+ *
+ * <p>Tokens are stored in parallel int arrays so that lexing a file allocates a handful of arrays
+ * rather than an object per token.
+ */
+final class SourceTokens {
+
+  static final int IDENTIFIER = 0;
+  static final int NUMBER = 1;
+  static final int STRING = 2;
+  static final int CHAR = 3;
+  static final int ELLIPSIS = 4;
+  /**
+   * Any other single character; the character itself is {@link #charAt}.
+   */
+  static final int PUNCTUATION = 5;
+
+  private final ByteBuffer source;
+  private int count;
+  private int[] kinds;
+  private int[] starts;
+  private int[] ends;
+  private int[] commentStarts;
+  private int[] commentEnds;
+
+  private SourceTokens(ByteBuffer source) {
+    this.source = source;
+    int capacity = Math.max(16, source.limit() / 4);
+    kinds = new int[capacity];
+    starts = new int[capacity];
+    ends = new int[capacity];
+    commentStarts = new int[capacity];
+    commentEnds = new int[capacity];
+  }
+
+  int size() {
+    return count;
+  }
+
+  int kind(int token) {
+    return kinds[token];
+  }
+
+  int start(int token) {
+    return starts[token];
+  }
+
+  int end(int token) {
+    return ends[token];
+  }
+
+  /**
+   * Returns true if a comment appears between this token and the one before it.
+   */
+  boolean isCommented(int token) {
+    return commentStarts[token] >= 0;
+  }
+
+  /**
+   * Returns the text of the last comment before this token, or null.
+   */
+  String commentBefore(int token) {
+    return isCommented(token) ? text(commentStarts[token], commentEnds[token]) : null;
+  }
+
+  char charAt(int token) {
+    return (char) source.get(starts[token]);
+  }
+
+  boolean is(int token, char punctuation) {
+    return token >= 0 && token < count && kinds[token] == PUNCTUATION
+        && source.get(starts[token]) == punctuation;
+  }
+
+  /**
+   * Compares an identifier to ASCII text without decoding it.
+   */
+  boolean is(int token, String identifier) {
+    if (token < 0 || token >= count || kinds[token] != IDENTIFIER
+        || ends[token] - starts[token] != identifier.length()) {
+      return false;
+    }
+    for (int i = 0; i < identifier.length(); ++i) {
+      if (source.get(starts[token] + i) != identifier.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  String text(int token) {
+    return text(starts[token], ends[token]);
+  }
+
+  private String text(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = source.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static SourceTokens lex(ByteBuffer source) {
+    SourceTokens tokens = new SourceTokens(source);
+    int limit = source.limit();
+    int commentStart = -1;
+    int commentEnd = -1;
+    int i = 0;
+    while (i < limit) {
+      int c = source.get(i) & 0xff;
+      int start = i;
+      int kind;
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+        ++i;
+        continue;
+      } else if (c == '/' && i + 1 < limit && source.get(i + 1) == '/') {
+        while (i < limit && source.get(i) != '\n') {
+          ++i;
+        }
+        commentStart = start;
+        commentEnd = i;
+        continue;
+      } else if (c == '/' && i + 1 < limit && source.get(i + 1) == '*') {
+        i += 2;
+        while (i < limit && !(source.get(i - 1) == '*' && source.get(i) == '/' && i > start + 2)) {
+          ++i;
+        }
+        i = Math.min(i + 1, limit);
+        commentStart = start;
+        commentEnd = i;
+        continue;
+      } else if (isIdentifierStart(c)) {
+        while (i < limit && isIdentifierPart(source.get(i) & 0xff)) {
+          ++i;
+        }
+        kind = IDENTIFIER;
+      } else if (isDigit(c) || (c == '.' && i + 1 < limit && isDigit(source.get(i + 1)))) {
+        i = skipNumber(source, i, limit);
+        kind = NUMBER;
+      } else if (c == '"') {
+        i = skipString(source, i, limit);
+        kind = STRING;
+      } else if (c == '\'') {
+        i = skipQuoted(source, i + 1, limit, '\'');
+        kind = CHAR;
+      } else if (c == '.' && i + 2 < limit && source.get(i + 1) == '.'
+          && source.get(i + 2) == '.') {
+        i += 3;
+        kind = ELLIPSIS;
+      } else {
+        ++i;
+        kind = PUNCTUATION;
+      }
+      tokens.add(kind, start, i, commentStart, commentEnd);
+      commentStart = -1;
+    }
+    return tokens;
+  }
+
+  private void add(int kind, int start, int end, int commentStart, int commentEnd) {
+    if (count == kinds.length) {
+      int capacity = count * 2;
+      kinds = Arrays.copyOf(kinds, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      commentStarts = Arrays.copyOf(commentStarts, capacity);
+      commentEnds = Arrays.copyOf(commentEnds, capacity);
+    }
+    kinds[count] = kind;
+    starts[count] = start;
+    ends[count] = end;
+    commentStarts[count] = commentStart;
+    commentEnds[count] = commentEnd;
+    ++count;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isIdentifierStart(int c) {
+    // Bytes of multi-byte UTF-8 sequences are treated as identifier characters
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+  }
+
+  private static boolean isIdentifierPart(int c) {
+    return isIdentifierStart(c) || isDigit(c);
+  }
+
+  private static int skipNumber(ByteBuffer source, int i, int limit) {
+    boolean hex = source.get(i) == '0' && i + 1 < limit
+        && (source.get(i + 1) == 'x' || source.get(i + 1) == 'X');
+    while (i < limit) {
+      int c = source.get(i) & 0xff;
+      if (isIdentifierPart(c) || c == '.') {
+        ++i;
+      } else if ((c == '+' || c == '-') && isExponent(source.get(i - 1), hex)) {
+        ++i;
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  private static boolean isExponent(int c, boolean hex) {
+    return hex ? c == 'p' || c == 'P' : c == 'e' || c == 'E';
+  }
+
+  private static int skipString(ByteBuffer source, int i, int limit) {
+    if (i + 2 < limit && source.get(i + 1) == '"' && source.get(i + 2) == '"') {
+      // Text block
+      i += 3;
+      while (i < limit) {
+        if (source.get(i) == '\\') {
+          i += 2;
+        } else if (source.get(i) == '"' && i + 2 < limit && source.get(i + 1) == '"'
+            && source.get(i + 2) == '"') {
+          return i + 3;
+        } else {
+          ++i;
+        }
+      }
+      return limit;
+    }
+    return skipQuoted(source, i + 1, limit, '"');
+  }
+
+  private static int skipQuoted(ByteBuffer source, int i, int limit, char quote) {
+    while (i < limit) {
+      byte c = source.get(i);
+      if (c == '\\') {
+        i += 2;
+      } else if (c == quote || c == '\n') {
+        return i + 1;
+      } else {
+        ++i;
+      }
+    }
+    return limit;
+  }
+}
@@ -0,0 +1,211 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Formats edits at known offsets of a file as a unified diff that {@code git apply} accepts. Only
+ * the lines a hunk shows are copied, so the file's text is never rebuilt.
+ */
+final class UnifiedDiff {
+
+  private static final int CONTEXT_LINES = 3;
+  private static final String NO_NEWLINE = "\\ No newline at end of file\n";
+
+  /**
+   * Replaces {@code [start, end)} of the original text with {@code replacement}.
+   */
+  static final class Edit {
+
+    final int start;
+    final int end;
+    final String replacement;
+
+    Edit(int start, int end, String replacement) {
+      this.start = start;
+      this.end = end;
+      this.replacement = replacement;
+    }
+  }
+
+  /**
+   * Consecutive lines changed by one or more edits.
+   */
+  private static final class Change {
+
+    final int firstLine;
+    int lastLine;
+    final List<Edit> edits = new ArrayList<>();
+
+    Change(int firstLine, int lastLine) {
+      this.firstLine = firstLine;
+      this.lastLine = lastLine;
+    }
+  }
+
+  private final String text;
+  private final String lineSeparator;
+  /**
+   * The offset each line starts at, followed by the text's length.
+   */
+  private final int[] lineStarts;
+  private final int lineCount;
+  private final boolean endsWithNewline;
+
+  private UnifiedDiff(String text, String lineSeparator) {
+    this.text = text;
+    this.lineSeparator = lineSeparator;
+    int[] starts = new int[64];
+    int count = 1;
+    for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+      }
+      starts[count++] = i + 1;
+    }
+    endsWithNewline = text.isEmpty() || text.charAt(text.length() - 1) == '\n';
+    lineCount = endsWithNewline ? count - 1 : count;
+    lineStarts = Arrays.copyOf(starts, lineCount + 1);
+    lineStarts[lineCount] = text.length();
+  }
+
+  /**
+   * Returns the diff for {@code path} of applying {@code edits} to {@code text}, or the empty
+   * string if there are none.
+   *
+   * @param text the original text, with '\n' line breaks
+   * @param edits non-overlapping edits, in any order
+   * @param lineSeparator the line separator the file uses on disk, "\n" or "\r\n"
+   */
+  static String diff(String path, String text, List<Edit> edits, String lineSeparator) {
+    if (edits.isEmpty()) {
+      return "";
+    }
+    return new UnifiedDiff(text, lineSeparator).format(path, edits);
+  }
+
+  private String format(String path, List<Edit> edits) {
+    List<Change> changes = group(edits);
+    StringBuilder out = new StringBuilder()
+        .append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+        .append("--- a/").append(path).append('\n')
+        .append("+++ b/").append(path).append('\n');
+    int delta = 0;
+    for (int first = 0; first < changes.size(); ) {
+      int last = first;
+      // Changes whose context would touch share a hunk, as in git's own diffs
+      while (last + 1 < changes.size()
+          && changes.get(last + 1).firstLine - changes.get(last).lastLine - 1
+          <= 2 * CONTEXT_LINES) {
+        ++last;
+      }
+      int start = Math.max(0, changes.get(first).firstLine - CONTEXT_LINES);
+      int end = Math.min(lineCount - 1, changes.get(last).lastLine + CONTEXT_LINES);
+
+      StringBuilder hunk = new StringBuilder();
+      int oldLines = 0;
+      int newLines = 0;
+      int line = start;
+      for (Change change : changes.subList(first, last + 1)) {
+        for (; line < change.firstLine; ++line, ++oldLines, ++newLines) {
+          appendLine(hunk, ' ', line(line), line == lineCount - 1);
+        }
+        for (; line <= change.lastLine; ++line, ++oldLines) {
+          appendLine(hunk, '-', line(line), line == lineCount - 1);
+        }
+        String[] replaced = apply(change).split("\n", -1);
+        for (int i = 0; i < replaced.length; ++i, ++newLines) {
+          appendLine(hunk, '+', replaced[i],
+              change.lastLine == lineCount - 1 && i == replaced.length - 1);
+        }
+      }
+      for (; line <= end; ++line, ++oldLines, ++newLines) {
+        appendLine(hunk, ' ', line(line), line == lineCount - 1);
+      }
+
+      out.append("@@ -").append(start + 1).append(',').append(oldLines)
+          .append(" +").append(start + 1 + delta).append(',').append(newLines).append(" @@\n")
+          .append(hunk);
+      delta += newLines - oldLines;
+      first = last + 1;
+    }
+    return out.toString();
+  }
+
+  /**
+   * Sorts the edits and groups those on the same or adjacent lines, so that each group's removed
+   * lines are followed by all of its added lines.
+   */
+  private List<Change> group(List<Edit> edits) {
+    List<Edit> sorted = new ArrayList<>(edits);
+    sorted.sort(Comparator.comparingInt(edit -> edit.start));
+    List<Change> changes = new ArrayList<>();
+    for (Edit edit : sorted) {
+      int firstLine = lineOf(edit.start);
+      int lastLine = lineOf(Math.max(edit.start, edit.end - 1));
+      Change previous = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+      if (previous != null && firstLine <= previous.lastLine + 1) {
+        previous.lastLine = Math.max(previous.lastLine, lastLine);
+      } else {
+        previous = new Change(firstLine, lastLine);
+        changes.add(previous);
+      }
+      previous.edits.add(edit);
+    }
+    return changes;
+  }
+
+  /**
+   * Returns the lines of {@code change} with its edits applied, without the final line break.
+   */
+  private String apply(Change change) {
+    StringBuilder result = new StringBuilder();
+    int offset = lineStarts[change.firstLine];
+    for (Edit edit : change.edits) {
+      result.append(text, offset, edit.start).append(edit.replacement);
+      offset = edit.end;
+    }
+    return result.append(text, offset, lineEnd(change.lastLine)).toString();
+  }
+
+  private void appendLine(StringBuilder hunk, char prefix, String content, boolean lastLine) {
+    hunk.append(prefix).append(content);
+    if (lastLine && !endsWithNewline) {
+      hunk.append('\n').append(NO_NEWLINE);
+    } else {
+      hunk.append(lineSeparator);
+    }
+  }
+
+  private String line(int line) {
+    return text.substring(lineStarts[line], lineEnd(line));
+  }
+
+  /**
+   * Returns the offset of the line break ending {@code line}, or the text's length.
+   */
+  private int lineEnd(int line) {
+    int end = lineStarts[line + 1];
+    return end > lineStarts[line] && text.charAt(end - 1) == '\n' ? end - 1 : end;
+  }
+
+  private int lineOf(int offset) {
+    int line = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+    return Math.min(lineCount - 1, line >= 0 ? line : -line - 2);
+  }
+}
@@ -0,0 +1,109 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.InspectionTestUtil.inspect;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ContentEntry;
+import com.intellij.openapi.roots.ModifiableRootModel;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.roots.libraries.Library;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.DefaultLightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import javax.tools.ToolProvider;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Calls into a library compiled without debug information, whose parameter names are made up by
+ * the decompiler and must not be reported or checked against.
+ */
+public class CompiledParameterNamesTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private static final String STUB = "package stubs;\n"
+      + "public class Stub {\n"
+      + "  public static void configure(int count, boolean recursive) {}\n"
+      + "}\n";
+
+  /**
+   * A project whose module depends on {@link #STUB}, compiled with {@code -g:none}.
+   */
+  private static final LightProjectDescriptor WITH_STUB =
+      new DefaultLightProjectDescriptor() {
+        @Override
+        public void configureModule(@NotNull Module module, @NotNull ModifiableRootModel model,
+            @NotNull ContentEntry contentEntry) {
+          super.configureModule(module, model, contentEntry);
+          Library.ModifiableModel library =
+              model.getModuleLibraryTable().createLibrary("stubs").getModifiableModel();
+          library.addRoot(VfsUtilCore.pathToUrl(compileStub().getPath()), OrderRootType.CLASSES);
+          library.commit();
+        }
+      };
+
+  private final LiteralArgumentsInspection inspection = new LiteralArgumentsInspection();
+
+  @NotNull
+  @Override
+  protected LightProjectDescriptor getProjectDescriptor() {
+    return WITH_STUB;
+  }
+
+  public void testAutoGeneratedNamesAreUnknown() {
+    PsiClass stub = myFixture.findClass("stubs.Stub");
+    PsiMethod method = stub.findMethodsByName("configure", false)[0];
+    assertInstanceOf(method, PsiCompiledElement.class);
+    assertEquals(Arrays.asList(null, null),
+        Arrays.asList(MethodDescriptor.of(method).parameterNames));
+  }
+
+  public void testCallsAreNotReported() {
+    PsiFile file = myFixture.addFileToProject("fixtures/UsesStub.java", "package fixtures;\n"
+        + "class UsesStub {\n"
+        + "  void run() {\n"
+        + "    stubs.Stub.configure(1, true);\n"
+        + "    stubs.Stub.configure(/* count= */ 1, /* recursive= */ true);\n"
+        + "  }\n"
+        + "}\n");
+    assertEmpty(inspect(inspection, file));
+  }
+
+  private static File compileStub() {
+    try {
+      File dir = FileUtil.createTempDirectory("stubs", null);
+      File source = new File(dir, "Stub.java");
+      Files.write(source.toPath(), STUB.getBytes(StandardCharsets.UTF_8));
+      File classes = new File(dir, "classes");
+      assertTrue(classes.mkdir());
+      assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+          "-g:none", "-source", "8", "-target", "8", "-d", classes.getPath(), source.getPath()));
+      return classes;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiFile;
+import java.util.List;
+
+/**
+ * Runs {@link LiteralArgumentsInspection} the way the tests need it.
+ */
+final class InspectionTestUtil {
+
+  private InspectionTestUtil() {}
+
+  /**
+   * Runs the inspection over the whole file, as a batch run does, including the index check that
+   * skips files without candidates.
+   */
+  static List<ProblemDescriptor> inspect(LiteralArgumentsInspection inspection, PsiFile file) {
+    ProblemsHolder holder = new ProblemsHolder(InspectionManager.getInstance(file.getProject()),
+        file, /* onTheFly= */ false);
+    CommentLiteralArgumentsAction.visitAll(file,
+        inspection.buildVisitor(holder, /* isOnTheFly= */ false));
+    return holder.getResults();
+  }
+}
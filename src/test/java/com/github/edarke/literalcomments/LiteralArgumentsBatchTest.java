@@ -0,0 +1,73 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.InspectionTestUtil.inspect;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+/**
+ * Runs the inspection as a batch run does, where files that {@link LiteralCallSiteIndex} shows
+ * have nothing to report are skipped without walking their PSI.
+ */
+public class LiteralArgumentsBatchTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private static final String BASE = "package fixtures;\n"
+      + "public class Base {\n"
+      + "  public Base(int count, boolean recursive) {}\n"
+      + "}\n";
+
+  private final LiteralArgumentsInspection inspection = new LiteralArgumentsInspection();
+
+  public void testSuperConstructorCall() {
+    myFixture.addFileToProject("fixtures/Base.java", BASE);
+    PsiFile file = myFixture.addFileToProject("fixtures/Derived.java", "package fixtures;\n"
+        + "class Derived extends Base {\n"
+        + "  Derived() {\n"
+        + "    super(1, true);\n"
+        + "  }\n"
+        + "}\n");
+    assertSize(2, inspect(inspection, file));
+  }
+
+  public void testThisConstructorCall() {
+    PsiFile file = myFixture.addFileToProject("fixtures/Delegating.java", "package fixtures;\n"
+        + "class Delegating {\n"
+        + "  Delegating(int count, boolean recursive) {}\n"
+        + "  Delegating() {\n"
+        + "    this(0, false);\n"
+        + "  }\n"
+        + "}\n");
+    assertSize(2, inspect(inspection, file));
+  }
+
+  public void testFileWithoutLiteralsIsSkipped() {
+    myFixture.addFileToProject("fixtures/Base.java", BASE);
+    PsiFile file = myFixture.addFileToProject("fixtures/Variables.java", "package fixtures;\n"
+        + "class Variables extends Base {\n"
+        + "  Variables(int count, boolean recursive) {\n"
+        + "    super(count, recursive);\n"
+        + "  }\n"
+        + "}\n");
+    assertFalse(LiteralCallSiteIndex.mayHaveCandidates(file, /* orParameterComments= */ true));
+    assertSame(PsiElementVisitor.EMPTY_VISITOR, inspection.buildVisitor(
+        new ProblemsHolder(InspectionManager.getInstance(getProject()), file, false),
+        /* isOnTheFly= */ false));
+  }
+
+}
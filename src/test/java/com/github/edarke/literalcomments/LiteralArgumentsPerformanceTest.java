@@ -0,0 +1,115 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.InspectionTestUtil.inspect;
+
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.Ref;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import java.util.Collections;
+
+/**
+ * Times the inspection and the batch fix over {@link PerformanceFixtures}. Each budget is in
+ * milliseconds on a reference machine; {@link PlatformTestUtil} scales it to the speed of the
+ * machine running the test, and the test fails when the fastest attempt is over budget.
+ *
+ * <p>When a change makes one of these legitimately slower or faster, re-record its budget here in
+ * the same commit.
+ */
+public class LiteralArgumentsPerformanceTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private static final int COPIES = 1_000;
+
+  // Placeholders, not yet recorded from a ./gradlew perfTest run on the reference machine, which
+  // is why check doesn't depend on perfTest
+  private static final int INSPECT_CALL_SITES_BUDGET_MS = 3_000;
+  private static final int INSPECT_IGNORED_CALLS_BUDGET_MS = 2_500;
+  private static final int FIX_CALL_SITES_BUDGET_MS = 8_000;
+
+  private final LiteralArgumentsInspection inspection = new LiteralArgumentsInspection();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    // The fixtures are far past the per-file limits that keep highlighting responsive
+    inspection.maxProblemsPerFile = 0;
+    inspection.maxMillisPerFile = 0;
+    for (String stub : PerformanceFixtures.GUAVA_STUBS) {
+      myFixture.addClass(stub);
+    }
+  }
+
+  public void testInspectCallSites() {
+    assertSize(PerformanceFixtures.CALL_SITE_PROBLEMS, inspect(inspection,
+        addFile("CallSite", PerformanceFixtures.callSites("CallSite", /* copies= */ 1))));
+    PsiFile file = addFile("CallSites", PerformanceFixtures.callSites("CallSites", COPIES));
+
+    PlatformTestUtil.startPerformanceTest("inspecting " + COPIES + " copies of Test",
+        INSPECT_CALL_SITES_BUDGET_MS,
+        () -> assertSize(PerformanceFixtures.CALL_SITE_PROBLEMS * COPIES,
+            inspect(inspection, file)))
+        .setup(this::dropCaches)
+        .attempts(3)
+        .assertTiming();
+  }
+
+  public void testInspectIgnoredCalls() {
+    assertSize(PerformanceFixtures.IGNORED_CALL_PROBLEMS, inspect(inspection,
+        addFile("IgnoredCall", PerformanceFixtures.ignoredCalls("IgnoredCall", /* copies= */ 1))));
+    PsiFile file =
+        addFile("IgnoredCalls", PerformanceFixtures.ignoredCalls("IgnoredCalls", COPIES));
+
+    PlatformTestUtil.startPerformanceTest("inspecting " + COPIES + " copies of TestIgnore",
+        INSPECT_IGNORED_CALLS_BUDGET_MS,
+        () -> assertSize(PerformanceFixtures.IGNORED_CALL_PROBLEMS * COPIES,
+            inspect(inspection, file)))
+        .setup(this::dropCaches)
+        .attempts(3)
+        .assertTiming();
+  }
+
+  public void testFixCallSites() {
+    PsiFile file = addFile("CallSites", PerformanceFixtures.callSites("CallSites", COPIES));
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+    assertNotNull(document);
+    String original = document.getText();
+    Ref<ProblemDescriptor[]> problems = Ref.create();
+
+    PlatformTestUtil.startPerformanceTest("fixing " + COPIES + " copies of Test",
+        FIX_CALL_SITES_BUDGET_MS, () -> LiteralParamQuickFix.findFix(problems.get()[0])
+            .applyFix(getProject(), problems.get(), Collections.emptyList(), null))
+        .setup(() -> {
+          WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText(original));
+          PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+          problems.set(inspect(inspection, file).toArray(ProblemDescriptor.EMPTY_ARRAY));
+          assertEquals(PerformanceFixtures.CALL_SITE_PROBLEMS * COPIES, problems.get().length);
+        })
+        .attempts(3)
+        .assertTiming();
+
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    assertEmpty(inspect(inspection, file));
+  }
+
+  private PsiFile addFile(String className, String text) {
+    return myFixture.addFileToProject("fixtures/" + className + ".java", text);
+  }
+
+}
@@ -0,0 +1,70 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import static com.github.edarke.literalcomments.InspectionTestUtil.inspect;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import java.util.List;
+
+/**
+ * Comments that name a parameter are checked against the resolved name, and the fix rewrites
+ * stale ones.
+ */
+public class ParameterCommentTest extends LightJavaCodeInsightFixtureTestCase {
+
+  private static final String DECLARATION = "package fixtures;\n"
+      + "class Limits {\n"
+      + "  static void clamp(int max_value, boolean inclusive) {}\n"
+      + "  void run() {\n";
+
+  private final LiteralArgumentsInspection inspection = new LiteralArgumentsInspection();
+
+  public void testExactSnakeCaseComment() {
+    PsiFile file = myFixture.addFileToProject("fixtures/Limits.java", DECLARATION
+        + "    clamp(/* max_value= */ 1, /* INCLUSIVE= */ true);\n"
+        + "  }\n"
+        + "}\n");
+    assertEmpty(inspect(inspection, file));
+  }
+
+  public void testStaleCommentsAreFixed() {
+    PsiFile file = myFixture.addFileToProject("fixtures/Limits.java", DECLARATION
+        + "    clamp(/* maxValue= */ 1, /* exclusive= */ true);\n"
+        + "  }\n"
+        + "}\n");
+    List<ProblemDescriptor> problems = inspect(inspection, file);
+    assertSize(2, problems);
+    assertEquals(String.format(ParameterCommentQuickFix.DESCRIPTION, "max_value"),
+        problems.get(0).getDescriptionTemplate());
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      for (ProblemDescriptor problem : problems) {
+        ((LocalQuickFix) problem.getFixes()[0]).applyFix(getProject(), problem);
+      }
+    });
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    assertEquals(DECLARATION
+        + "    clamp(/* max_value= */ 1, /* inclusive= */ true);\n"
+        + "  }\n"
+        + "}\n", file.getText());
+    assertEmpty(inspect(inspection, file));
+  }
+}
@@ -0,0 +1,167 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+/**
+ * Large sources for {@link LiteralArgumentsPerformanceTest}, made by repeating the calls of
+ * {@link Test} and {@link TestIgnore} with different literals in each copy.
+ */
+final class PerformanceFixtures {
+
+  /**
+   * Copies per method, so no single method body is unrealistically long.
+   */
+  private static final int COPIES_PER_METHOD = 50;
+
+  /**
+   * Problems reported per copy of {@link #callSites}.
+   */
+  static final int CALL_SITE_PROBLEMS = 23;
+
+  /**
+   * Problems reported per copy of {@link #ignoredCalls}.
+   */
+  static final int IGNORED_CALL_PROBLEMS = 2;
+
+  /**
+   * Just enough of Guava for the fixtures to resolve, with Guava's parameter names.
+   */
+  static final String[] GUAVA_STUBS = {
+      "package com.google.common.base;\n"
+          + "public abstract class Optional<T> {\n"
+          + "  public static <T> Optional<T> absent() { return null; }\n"
+          + "  public static <T> Optional<T> of(T reference) { return null; }\n"
+          + "  public abstract T orNull();\n"
+          + "}",
+      "package com.google.common.collect;\n"
+          + "public abstract class ImmutableList<E> implements java.util.List<E> {\n"
+          + "  public static <E> ImmutableList<E> of(E e1, E e2, E e3) { return null; }\n"
+          + "}",
+      "package com.google.common.collect;\n"
+          + "public abstract class ImmutableSet<E> implements java.util.Set<E> {\n"
+          + "  public static <E> ImmutableSet<E> of(E e1, E e2, E e3, E e4, E e5) {\n"
+          + "    return null;\n"
+          + "  }\n"
+          + "}",
+      "package com.google.common.collect;\n"
+          + "public abstract class ImmutableMap<K, V> implements java.util.Map<K, V> {\n"
+          + "  public static <K, V> ImmutableMap<K, V> of(K k1, V v1, K k2, V v2) {\n"
+          + "    return null;\n"
+          + "  }\n"
+          + "}",
+      "package com.google.common.collect;\n"
+          + "public final class Iterables {\n"
+          + "  public static <T> T get(Iterable<T> iterable, int position) { return null; }\n"
+          + "}",
+  };
+
+  private PerformanceFixtures() {}
+
+  /**
+   * A class shaped like {@link Test}: {@value #CALL_SITE_PROBLEMS} uncommented literal arguments
+   * per copy.
+   */
+  static String callSites(String className, int copies) {
+    StringBuilder source = new StringBuilder()
+        .append("package fixtures;\n\n")
+        .append("import java.util.Optional;\n\n")
+        .append("public class ").append(className).append(" {\n\n");
+    for (int method = 0; method * COPIES_PER_METHOD < copies; ++method) {
+      source.append("  void test").append(method).append("() {\n");
+      for (int i = method * COPIES_PER_METHOD;
+          i < Math.min(copies, (method + 1) * COPIES_PER_METHOD); ++i) {
+        source
+            .append("    nonnullObject(null, null);\n")
+            .append("    stringLiteral(null, null);\n")
+            .append("    new ").append(className).append("(").append(i).append(", 2);\n")
+            .append("    primitives(").append(i).append(", (short) 0   /*shorter*/, ")
+            .append(i).append("f, 0.0, ").append(i).append("L, false, (byte) 0);\n")
+            .append("    javaEmptyOptional(Optional.empty(), Optional.<String>empty());\n")
+            .append("    javaEmptyOptional(java.util.Optional.<String>empty(), ")
+            .append("java.util.Optional.empty());\n")
+            .append("    javaEmptyOptional(null, null);\n")
+            .append("    guavaAbsentOptional(com.google.common.base.Optional.absent(), ")
+            .append("com.google.common.base.Optional.<String>absent());\n")
+            .append("    guavaAbsentOptional(null, null);\n");
+      }
+      source.append("  }\n\n");
+    }
+    return source
+        .append("  public ").append(className).append("(int x, int y) {}\n\n")
+        .append("  static Object nonnullObject(Object o1, Object o2) { return o1; }\n\n")
+        .append("  static String stringLiteral(String a, String arg) { return arg; }\n\n")
+        .append("  static String primitives(int integer, short shorter, float floater, ")
+        .append("double doubler, long longer, boolean bool, byte bite) { return null; }\n\n")
+        .append("  static <T> T javaEmptyOptional(Optional<T> opt, Optional<T> opt2) {")
+        .append(" return null; }\n\n")
+        .append("  static <T> T guavaAbsentOptional(com.google.common.base.Optional<T> opt, ")
+        .append("com.google.common.base.Optional<T> opt2) { return null; }\n")
+        .append("}\n")
+        .toString();
+  }
+
+  /**
+   * A class shaped like {@link TestIgnore}: calls that are blacklisted, exempt or already
+   * commented, so nearly every one is resolved and then dropped. Only the two comments on
+   * {@code nonnullObject}, which don't match its parameter names, are reported per copy.
+   */
+  static String ignoredCalls(String className, int copies) {
+    StringBuilder source = new StringBuilder()
+        .append("package fixtures;\n\n")
+        .append("import com.google.common.collect.ImmutableList;\n")
+        .append("import com.google.common.collect.ImmutableMap;\n")
+        .append("import com.google.common.collect.ImmutableSet;\n")
+        .append("import com.google.common.collect.Iterables;\n")
+        .append("import java.util.Collections;\n")
+        .append("import java.util.HashMap;\n")
+        .append("import java.util.Optional;\n\n")
+        .append("public class ").append(className).append(" {\n\n");
+    for (int method = 0; method * COPIES_PER_METHOD < copies; ++method) {
+      source.append("  void test").append(method).append("() {\n");
+      for (int i = method * COPIES_PER_METHOD;
+          i < Math.min(copies, (method + 1) * COPIES_PER_METHOD); ++i) {
+        source
+            .append("    \"Hello, World!\".charAt(").append(i % 13).append(");\n")
+            .append("    \"Test\".substring(1);\n")
+            .append("    new ").append(className).append("(").append(i).append(");\n")
+            .append("    ImmutableSet.of(1, 2, 3, 4 /* e4*/, ").append(i).append(");\n")
+            .append("    ImmutableMap.of(0, 1, 2+1, ").append(i).append(");\n")
+            .append("    Math.cos(").append(i).append(");\n")
+            .append("    java.lang.Math.pow(2, 8);\n")
+            .append("    new Integer(10).compareTo(").append(i).append(");\n")
+            .append("    new HashMap<Integer, Integer>().get(").append(i).append(");\n")
+            .append("    String.format(\"%d %d\", 1, ").append(i).append(");\n")
+            .append("    Collections.singletonList(").append(i).append(");\n")
+            .append("    Integer.valueOf(").append(i).append(");\n")
+            .append("    Iterables.get(ImmutableList.of(1, 2, 3), 0);\n")
+            .append("    Optional.of(3).orElse(").append(i).append(");\n")
+            .append("    stringLiteral(\"hello world\", \"\");\n")
+            .append("    stringLiteral(/* comment */ \"\", \"").append(i).append("\");\n")
+            .append("    nonnullObject(new Object(), new Object());\n")
+            .append("    nonnullObject(/* o= */ null, /* five= */ ").append(i).append(");\n")
+            .append("    createArray(1, 2, 3, ").append(i).append(");\n")
+            .append("    testChar('a', 'b');\n");
+      }
+      source.append("  }\n\n");
+    }
+    return source
+        .append("  ").append(className).append("(int x) {}\n\n")
+        .append("  static Object nonnullObject(Object o1, Object o2) { return o1; }\n\n")
+        .append("  static String stringLiteral(String a, String arg) { return arg; }\n\n")
+        .append("  static boolean testChar(char a, char b) { return a < b; }\n\n")
+        .append("  static Object[] createArray(Object... vars) { return vars; }\n")
+        .append("}\n")
+        .toString();
+  }
+}
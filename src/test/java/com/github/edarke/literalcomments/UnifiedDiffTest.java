@@ -0,0 +1,142 @@
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.edarke.literalcomments;
+
+import java.util.Arrays;
+import java.util.Collections;
+import junit.framework.TestCase;
+
+/**
+ * The patches {@link ExportLiteralCommentsPatchAction} writes, down to the line endings.
+ */
+public class UnifiedDiffTest extends TestCase {
+
+  private static final String HEADER = "diff --git a/A.java b/A.java\n"
+      + "--- a/A.java\n"
+      + "+++ b/A.java\n";
+
+  /**
+   * Lines "0" to "19", each followed by a line break.
+   */
+  private static final String LINES;
+
+  static {
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < 20; ++i) {
+      lines.append(i).append('\n');
+    }
+    LINES = lines.toString();
+  }
+
+  private static UnifiedDiff.Edit insert(String text, String before, String insertion) {
+    int offset = text.indexOf(before);
+    return new UnifiedDiff.Edit(offset, offset, insertion);
+  }
+
+  public void testNoEdits() {
+    assertEquals("", UnifiedDiff.diff("A.java", LINES, Collections.emptyList(), "\n"));
+  }
+
+  public void testLf() {
+    assertEquals(HEADER
+            + "@@ -2,7 +2,7 @@\n"
+            + " 1\n"
+            + " 2\n"
+            + " 3\n"
+            + "-4\n"
+            + "+x 4\n"
+            + " 5\n"
+            + " 6\n"
+            + " 7\n",
+        UnifiedDiff.diff("A.java", LINES,
+            Collections.singletonList(insert(LINES, "4\n", "x ")), "\n"));
+  }
+
+  /**
+   * Only the file's own lines keep its line separator; git reads the headers either way.
+   */
+  public void testCrlf() {
+    assertEquals(HEADER
+            + "@@ -2,7 +2,7 @@\n"
+            + " 1\r\n"
+            + " 2\r\n"
+            + " 3\r\n"
+            + "-4\r\n"
+            + "+x 4\r\n"
+            + " 5\r\n"
+            + " 6\r\n"
+            + " 7\r\n",
+        UnifiedDiff.diff("A.java", LINES,
+            Collections.singletonList(insert(LINES, "4\n", "x ")), "\r\n"));
+  }
+
+  public void testNoFinalNewline() {
+    String text = "a\nb\nc";
+    assertEquals(HEADER
+            + "@@ -1,3 +1,3 @@\n"
+            + " a\n"
+            + " b\n"
+            + "-c\n"
+            + "\\ No newline at end of file\n"
+            + "+x c\n"
+            + "\\ No newline at end of file\n",
+        UnifiedDiff.diff("A.java", text,
+            Collections.singletonList(insert(text, "c", "x ")), "\n"));
+  }
+
+  public void testDeletionAcrossLines() {
+    String text = "a(1\n    /* b= */);\n";
+    assertEquals(HEADER
+            + "@@ -1,2 +1,1 @@\n"
+            + "-a(1\n"
+            + "-    /* b= */);\n"
+            + "+a(/* b= */ 1);\n",
+        UnifiedDiff.diff("A.java", text, Arrays.asList(
+            new UnifiedDiff.Edit(text.indexOf('\n'), text.indexOf(')'), ""),
+            insert(text, "1", "/* b= */ ")), "\n"));
+  }
+
+  public void testMergedHunks() {
+    // 4 and 11 have six lines between them, so their contexts touch; 19 gets a hunk of its own
+    assertEquals(HEADER
+            + "@@ -2,14 +2,14 @@\n"
+            + " 1\n"
+            + " 2\n"
+            + " 3\n"
+            + "-4\n"
+            + "+x 4 y\n"
+            + " 5\n"
+            + " 6\n"
+            + " 7\n"
+            + " 8\n"
+            + " 9\n"
+            + " 10\n"
+            + "-11\n"
+            + "+x 11\n"
+            + " 12\n"
+            + " 13\n"
+            + " 14\n"
+            + "@@ -17,4 +17,4 @@\n"
+            + " 16\n"
+            + " 17\n"
+            + " 18\n"
+            + "-19\n"
+            + "+x 19\n",
+        UnifiedDiff.diff("A.java", LINES, Arrays.asList(
+            insert(LINES, "19\n", "x "),
+            insert(LINES, "4\n", "x "),
+            insert(LINES, "\n5\n", " y"),
+            insert(LINES, "11\n", "x ")), "\n"));
+  }
+}